@@ -8,6 +8,7 @@ import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import com.sandcore.casting.CastingSystem;
 import com.sandcore.classes.ClassManager;
 import com.sandcore.command.ClassInfoCommandExecutor;
 import com.sandcore.command.ClassesCommandExecutor;
@@ -17,28 +18,49 @@ import com.sandcore.command.MainCommandExecutor;
 import com.sandcore.command.MainTabCompleter;
 import com.sandcore.command.ProfileCommandExecutor;
 import com.sandcore.command.SetLevelCommandExecutor;
+import com.sandcore.damage.DamageEngine;
 import com.sandcore.data.PlayerDataManager;
+import com.sandcore.hud.CombatEffectsService;
+import com.sandcore.hud.DamageIndicatorService;
 import com.sandcore.hud.HUDManager;
+import com.sandcore.hud.NameplateService;
 import com.sandcore.items.ItemsManager;
 import com.sandcore.levels.LevelManager;
+import com.sandcore.levels.MobLevelService;
 import com.sandcore.levels.XPSourceManager;
 import com.sandcore.listeners.ItemUpdateListener;
 import com.sandcore.listeners.ProfileGUIListener;
 import com.sandcore.listeners.StatGUIListener;
+import com.sandcore.listeners.StatModifierListener;
 import com.sandcore.listeners.XPListener;
+import com.sandcore.stat.HealthService;
 import com.sandcore.stat.StatManager;
+import com.sandcore.status.StatusEffectManager;
+import com.sandcore.util.TimingWheel;
 
 public class SandCore extends JavaPlugin {
 
+    // Shared tick-based timeouts (status effects, casting); advanced once per tick.
+    private final TimingWheel<Runnable> timingWheel = new TimingWheel<>();
+
     // Keep a reference so that the ClassManager can be used later in your plugin.
     private ClassManager classManager;
     private LevelManager levelManager;
     private XPSourceManager xpSourceManager;
+    private MobLevelService mobLevelService;
+    private CastingSystem castingSystem;
     private PlayerDataManager playerDataManager;
     private HUDManager hudManager;
     private ItemsManager itemsManager;
     private MainCommandExecutor mainCommandExecutor;
     private StatManager statManager;
+    private HealthService healthService;
+    private StatusEffectManager statusEffectManager;
+    private NameplateService nameplateService;
+    private DamageIndicatorService damageIndicatorService;
+    private CombatEffectsService combatEffectsService;
+    private DamageEngine damageEngine;
+    private StatModifierListener statModifierListener;
 
     @Override
     public void onEnable() {
@@ -52,6 +74,7 @@ public class SandCore extends JavaPlugin {
 
         // Register core services.
         registerServices();
+        Bukkit.getScheduler().runTaskTimer(this, this::advanceTimingWheel, 1L, 1L);
 
         // Leveling system initialization:
         saveDefaultConfig();
@@ -71,8 +94,35 @@ public class SandCore extends JavaPlugin {
         // Initialize the ClassManager (loads classes from classes.yml).
         classManager = new ClassManager(this);
 
+        // Level/class nameplates above heads and in the tab list.
+        if (getConfig().getBoolean("nameplate.enabled", true)) {
+            nameplateService = new NameplateService(this, playerDataManager, classManager);
+        }
+
+        // Floating damage numbers over victims.
+        if (getConfig().getBoolean("indicators.enabled", true)) {
+            damageIndicatorService = new DamageIndicatorService(this);
+        }
+
+        // Batched, distance-culled combat particles and sounds.
+        if (getConfig().getBoolean("effects.enabled", true)) {
+            combatEffectsService = new CombatEffectsService(this);
+        }
+
         // Initialize statManager and GUI listener FIRST
         this.statManager = new StatManager(this);
+        // Max health and regen from stats.
+        if (getConfig().getBoolean("health.enabled", true)) {
+            this.healthService = new HealthService(this, statManager);
+        }
+        // Buffs and debuffs feed modifiers into the StatManager.
+        this.statusEffectManager = new StatusEffectManager(this, statManager);
+        // Mob levels feed both XP awards and mob profiles, so this must precede the DamageEngine.
+        if (getConfig().getBoolean("mob_levels.enabled", true)) {
+            this.mobLevelService = new MobLevelService(this);
+        }
+        // Damage formulas are compiled against the stat registry, so this must follow the StatManager.
+        this.damageEngine = new DamageEngine(this);
         FileConfiguration guiConfig = YamlConfiguration.loadConfiguration(new File(getDataFolder(), "gui.yml"));
         ProfileGUIListener profileGUIListener = new ProfileGUIListener(statManager, guiConfig);
         profileGUIListener.setPlayerDataManager(playerDataManager);
@@ -86,7 +136,7 @@ public class SandCore extends JavaPlugin {
 
         // Register the XP listener for awarding XP on mob kills.
         getServer().getPluginManager().registerEvents(
-                new XPListener(xpSourceManager, playerDataManager, levelManager, hudManager, getLogger()), this);
+                new XPListener(xpSourceManager, playerDataManager, levelManager, hudManager, mobLevelService, getLogger()), this);
 
         // Schedule an asynchronous repeating task to auto-save player data every 60 seconds.
         Bukkit.getScheduler().runTaskTimerAsynchronously(this, () -> {
@@ -119,7 +169,7 @@ public class SandCore extends JavaPlugin {
         // Register commands
         this.mainCommandExecutor = new MainCommandExecutor(this, itemsManager);
         Objects.requireNonNull(getCommand("sandcore")).setExecutor(mainCommandExecutor);
-        getCommand("sandcore").setTabCompleter(new MainTabCompleter(itemsManager));
+        getCommand("sandcore").setTabCompleter(new MainTabCompleter(itemsManager, statusEffectManager));
 
         // Register item update listener
         new ItemUpdateListener(
@@ -133,12 +183,24 @@ public class SandCore extends JavaPlugin {
         // Register stat GUI listener
         new StatGUIListener(statManager, playerDataManager);
 
+        // Equipment and class passives feed the stat modifier stack; needs itemsManager.
+        this.statModifierListener = new StatModifierListener(this, itemsManager, classManager, statManager);
+
         getLogger().info("SandCore enabled successfully with enhanced leveling system!");
     }
 
     @Override
     public void onDisable() {
+        if (nameplateService != null) {
+            nameplateService.shutdown();
+        }
+        if (damageIndicatorService != null) {
+            damageIndicatorService.shutdown();
+        }
         // Save player data on plugin disable.
+        if (statManager != null) {
+            statManager.storeAll();
+        }
         if (playerDataManager != null) {
             playerDataManager.savePlayerData();
         }
@@ -295,7 +357,7 @@ public class SandCore extends JavaPlugin {
             e.printStackTrace();
         }
         // Instantiate the CastingSystem to register its event listeners.
-        new com.sandcore.casting.CastingSystem(this);
+        this.castingSystem = new CastingSystem(this);
 
         // Register stat GUI listener
         new StatGUIListener(statManager, playerDataManager);
@@ -321,4 +383,66 @@ public class SandCore extends JavaPlugin {
     public StatManager getStatManager() {
         return statManager;
     }
+
+    public StatusEffectManager getStatusEffectManager() {
+        return statusEffectManager;
+    }
+
+    /**
+     * Returns the health service, or null if health.enabled is false.
+     */
+    public HealthService getHealthService() {
+        return healthService;
+    }
+
+    /**
+     * Returns the mob level service, or null if mob_levels.enabled is false.
+     */
+    public MobLevelService getMobLevelService() {
+        return mobLevelService;
+    }
+
+    /**
+     * Returns the plugin-wide timing wheel. Payloads run on the main thread when
+     * they expire; scheduling, rescheduling and cancelling are O(1).
+     */
+    public TimingWheel<Runnable> getTimingWheel() {
+        return timingWheel;
+    }
+
+    private void advanceTimingWheel() {
+        timingWheel.advance(task -> {
+            // One failing payload must not drop the others expiring in the same tick.
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                getLogger().severe("Error in timed task: " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
+    }
+
+    public CastingSystem getCastingSystem() {
+        return castingSystem;
+    }
+
+    public DamageEngine getDamageEngine() {
+        return damageEngine;
+    }
+
+    public NameplateService getNameplateService() {
+        return nameplateService;
+    }
+
+    public DamageIndicatorService getDamageIndicatorService() {
+        return damageIndicatorService;
+    }
+
+    public CombatEffectsService getCombatEffectsService() {
+        return combatEffectsService;
+    }
+
+    public StatModifierListener getStatModifierListener() {
+        return statModifierListener;
+    }
 }
@@ -3,20 +3,13 @@ package com.sandcore.casting;
 import java.io.File;
 import java.nio.ByteBuffer;
 import java.security.MessageDigest;
-import java.time.Duration;
-import java.time.Instant;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.logging.Logger;
 
-import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
 import org.bukkit.Particle;
@@ -24,35 +17,60 @@ import org.bukkit.Sound;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerSwapHandItemsEvent;
+import org.bukkit.inventory.EquipmentSlot;
 
 import com.sandcore.SandCore;
+import com.sandcore.events.ClassChangeEvent;
+import com.sandcore.util.TimingWheel;
 
 /**
  * CastingSystem emulates a Wynncraft-like skills casting system.
  * It listens for players pressing the F key to activate casting mode,
- * asynchronously detects a three-click combo (L/R clicks) within a timeout,
+ * detects a combo of 1 to 6 L/R clicks within a timeout,
  * determines the MythicMob skill based on the player's selected class (as defined in classes.yml),
  * and casts the skill using the MythicMob API.
  *
+ * Clicks are handled synchronously in the event handler that reports them: each
+ * session debounces repeated clicks of the same button by {@link System#nanoTime()}
+ * and gives feedback (and casts) in the same tick. Combos are packed into an int
+ * ({@link ComboCode}) and each class's combos are compiled into a {@link ComboTable}
+ * backed by a flattened {@link ComboTrie} that the session walks one click at a
+ * time: a click no combo continues with is rejected at once, a combo fires as
+ * soon as it cannot be extended, and a combo that is also the start of a longer
+ * one fires if no further click arrives within the ambiguity window.
+ * Session timeouts and the toggle cooldown are timers on the plugin's shared
+ * {@link TimingWheel}, so restarting a timeout never touches the Bukkit scheduler.
+ *
  * Configuration (loaded from classes.yml):
  * - casting.timeout: combo timeout in seconds (default: 5)
+ * - casting.ambiguityWindowTicks: how long a complete combo that is also the start of a longer
+ *   one waits for another click before it is cast (default: 5)
  * - casting.activationMessage: Action bar message (with hex colors) when casting mode is activated.
  * - casting.cancelMessage: Action bar message when casting is cancelled (e.g. timeout or invalid combo).
  * - casting.successMessage: Action bar message on a successful cast.
  * - casting.activationSound, casting.cancelSound, casting.successSound: Sound names.
  * - casting.comboMappings: For each class (e.g. "Mage", "Warrior", "Rogue"), defines a mapping
- *   of a three-click combo pattern (string such as "L,R,L") to a MythicMob skill name.
+ *   of a combo pattern of 1 to 6 clicks (string such as "L,R,L") to a MythicMob skill name.
+ * - classes.&lt;id&gt;.keyCombos: the same mapping per class id; used for classes that have
+ *   no casting.comboMappings entry.
+ *
+ * Both are compiled into immutable per-class tables when the configuration is
+ * (re)loaded, and each player's table is cached until their class changes, so
+ * casting never reads configuration files.
  */
 public class CastingSystem implements Listener {
 
     private final SandCore plugin;
     // Configurable options for casting
     private int comboTimeoutSeconds;
+    private long ambiguityWindowTicks = 5;
     private String activationMessage;
     private String cancelMessage;
     private String successMessage;
@@ -66,17 +84,17 @@ public class CastingSystem implements Listener {
     private String clickSound;
     private double clickSoundVolume;
     private double clickSoundPitch;
-    // Mapping: Player's class => combo pattern (e.g., "L,R,L") => MythicMob skill name.
-    private Map<String, Map<String, String>> comboMappings;
+    // Mapping: lower-case class name => compiled combo patterns (e.g., "L,R,L") => MythicMob skill name.
+    private Map<String, ComboTable> comboMappings = Collections.emptyMap();
+    // Combo table of each player's current class, resolved on first use.
+    private final Map<UUID, ComboTable> playerTables = new HashMap<>();
     // Active casting sessions keyed by player UUID.
     private final Map<UUID, CastingSession> activeSessions = new ConcurrentHashMap<>();
-    private final ExecutorService comboExecutor = Executors.newCachedThreadPool();
     private CastingConfig cachedConfig;
     private long lastConfigHash;
-    // Cooldown tracking for mode toggling (1 second)
-    private final Map<UUID, Instant> toggleCooldowns = new ConcurrentHashMap<>();
-    // Add this field to track last click times
-    private final Map<UUID, Long> lastClickTimes = new HashMap<>();
+    private final TimingWheel<Runnable> timingWheel;
+    // Cooldown tracking for mode toggling (1 second); entries remove themselves when the timer expires.
+    private final Map<UUID, TimingWheel.Timer<Runnable>> toggleCooldowns = new HashMap<>();
 
     /**
      * Constructor. Loads the casting configuration from classes.yml
@@ -84,6 +102,7 @@ public class CastingSystem implements Listener {
      */
     public CastingSystem(SandCore plugin) {
         this.plugin = plugin;
+        this.timingWheel = plugin.getTimingWheel();
         loadConfiguration();
         // Register event listeners for casting events.
         this.plugin.getServer().getPluginManager().registerEvents(this, plugin);
@@ -99,13 +118,14 @@ public class CastingSystem implements Listener {
             
             if (cachedConfig == null || currentHash != lastConfigHash) {
                 YamlConfiguration config = YamlConfiguration.loadConfiguration(classesFile);
-                cachedConfig = new CastingConfig(config);
+                cachedConfig = new CastingConfig(config, plugin.getLogger());
                 lastConfigHash = currentHash;
                 plugin.getLogger().info("Reloaded and cached casting configuration");
             }
             
             // Update runtime values from cache
             comboTimeoutSeconds = cachedConfig.timeout;
+            ambiguityWindowTicks = cachedConfig.ambiguityWindowTicks;
             comboCooldownMillis = cachedConfig.comboCooldownMillis;
             leftClickLockTicks = cachedConfig.leftClickLock;
             rightClickLockTicks = cachedConfig.rightClickLock;
@@ -116,6 +136,8 @@ public class CastingSystem implements Listener {
             clickSoundVolume = cachedConfig.clickSoundVolume;
             clickSoundPitch = cachedConfig.clickSoundPitch;
             comboMappings = cachedConfig.comboMappings;
+            // Class tables may have changed; players re-resolve theirs on next use.
+            playerTables.clear();
             
             // Load messages and other sound config
             activationMessage = cachedConfig.activationMessage;
@@ -137,11 +159,9 @@ public class CastingSystem implements Listener {
         
         // Check cooldown
         if (toggleCooldowns.containsKey(player.getUniqueId())) {
-            if (Instant.now().isBefore(toggleCooldowns.get(player.getUniqueId()))) {
-                player.sendActionBar(translateHexColors("&cYou must wait before toggling casting mode again!"));
-                event.setCancelled(true);
-                return;
-            }
+            player.sendActionBar(translateHexColors("&cYou must wait before toggling casting mode again!"));
+            event.setCancelled(true);
+            return;
         }
         
         // Cancel the default item swap action to prevent vanilla behavior.
@@ -153,17 +173,13 @@ public class CastingSystem implements Listener {
             session.invalidate();
             session.cancelAllTimeouts();
             session.resetClicks();
-            
-            Bukkit.getScheduler().runTask(plugin, () -> {
-                // Nuclear cleanup
-                activeSessions.values().removeIf(s -> s.player.equals(player));
-                player.sendActionBar("Casting mode deactivated!");
-                playSound(player, cancelSound, 1.0f, 1.0f);
-            });
+            player.sendActionBar("Casting mode deactivated!");
+            playSound(player, cancelSound, 1.0f, 1.0f);
             return;
         }
         // Otherwise, activate casting mode.
-        toggleCooldowns.put(player.getUniqueId(), Instant.now().plusSeconds(1));
+        UUID uuid = player.getUniqueId();
+        toggleCooldowns.put(uuid, timingWheel.schedule(() -> toggleCooldowns.remove(uuid), TOGGLE_COOLDOWN_TICKS));
         activateCastingMode(player);
     }
 
@@ -173,32 +189,27 @@ public class CastingSystem implements Listener {
     @EventHandler
     public void onEntityDamage(EntityDamageByEntityEvent event) {
         if (!(event.getDamager() instanceof Player)) return;
+        // Skill and projectile damage dealt in the player's name is not a click.
+        if (plugin.getDamageEngine() != null && plugin.getDamageEngine().isDealingDamage()) return;
         
         Player player = (Player) event.getDamager();
-        if (!activeSessions.containsKey(player.getUniqueId())) return;
+        CastingSession session = activeSessions.get(player.getUniqueId());
+        if (session == null) return;
 
         // Record left-click attack as part of combo
-        CastingSession session = activeSessions.get(player.getUniqueId());
-        session.addClick("L");
-        
-        // Update action bar and check for combo completion
-        player.sendActionBar("Combo: " + session.getComboString());
-        plugin.getLogger().info("Player " + player.getName() + " entity left-click (Combo: " + session.getComboString() + ")");
-        
-        if (session.getComboSize() == 3) {
-            session.cancelTimeout();
-            processCombo(player, session.getComboString());
-        }
+        handleClick(player, session, "L");
     }
 
     /**
      * Event handler to detect left/right clicks while in casting mode.
-     * These clicks are recorded as part of the three-click combo.
+     * These clicks are recorded as part of the combo.
      */
     @EventHandler
     public void onPlayerInteract(PlayerInteractEvent event) {
         Player player = event.getPlayer();
-        if (!activeSessions.containsKey(player.getUniqueId())) {
+        CastingSession session = activeSessions.get(player.getUniqueId());
+        // Right clicks are reported once per hand; only count the main hand.
+        if (session == null || event.getHand() == EquipmentSlot.OFF_HAND) {
             return;
         }
         // Only process left/right click actions.
@@ -213,24 +224,45 @@ public class CastingSystem implements Listener {
             return;
         }
         // Record the click in the player's casting session.
-        CastingSession session = activeSessions.get(player.getUniqueId());
-        session.addClick(clickType);
-        // Update the action bar with the current combo.
-        player.sendActionBar("Combo: " + session.getComboString());
-        plugin.getLogger().info("Player " + player.getName() + " clicked: " + clickType + " (Combo: " + session.getComboString() + ")");
-        // When exactly three clicks have been recorded, process the combo.
-        if (session.getComboSize() == 3) {
+        handleClick(player, session, clickType);
+    }
+
+    /**
+     * Feeds a click into the player's session and, in the same tick, plays the
+     * click feedback and processes the combo once it is complete.
+     */
+    private void handleClick(Player player, CastingSession session, String click) {
+        ClickResult result = session.addClick(click, System.nanoTime());
+        if (result == ClickResult.IGNORED) {
+            return;
+        }
+        playComboClickSound(player);
+        player.sendActionBar(translateHexColors("&eCombo: &b" + ComboCode.toString(session.getCombo(), ",")));
+        if (result == ClickResult.INVALID) {
+            // No combo of the player's class starts with these clicks; no need to wait for the rest.
+            rejectCombo(player, session);
+        } else if (result == ClickResult.COMPLETE) {
             session.cancelTimeout();
-            processCombo(player, session.getComboString());
+            processCombo(player, session.getCombo());
+        } else if (result == ClickResult.AMBIGUOUS) {
+            session.startAmbiguityWindow();
         }
     }
 
     /**
      * Activates casting mode for the specified player.
      * Displays an action bar message and plays the activation sound, then starts the timeout.
+     * Players without a class, or whose class has no combos, stay out of casting mode.
      */
     private void activateCastingMode(Player player) {
+        ComboTable table = comboTableOf(player);
+        if (table.isEmpty()) {
+            player.sendActionBar("§cYour class has no combos to cast!");
+            playSound(player, cancelSound, 1.0f, 1.0f);
+            return;
+        }
         CastingSession session = new CastingSession(player);
+        session.table = table;
         activeSessions.put(player.getUniqueId(), session);
         
         // Final null check before using
@@ -238,89 +270,119 @@ public class CastingSystem implements Listener {
             plugin.getLogger().severe("CRITICAL ERROR: activationSound is null when activating casting mode!");
         }
 
-        // Show the activation action bar message and play sound on the main thread.
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            player.sendActionBar(""); // Clear any previous message
-            player.sendActionBar(translateHexColors(activationMessage));
-            plugin.getLogger().info("activateCastingMode: playing activation sound, sound parameter: '" + activationSound + "'");
-            playSound(player, activationSound, 1.0f, 1.0f);
-        });
+        // Show the activation action bar message and play sound.
+        player.sendActionBar(translateHexColors(activationMessage));
+        playSound(player, activationSound, 1.0f, 1.0f);
         plugin.getLogger().info("Casting mode activated for player: " + player.getName());
         // Schedule a timeout task that cancels the combo if not completed in time.
         session.restartTimeout();
     }
 
     /**
-     * Processes the three-click combo: determines the player's class, looks up the corresponding
+     * Returns the compiled combos of the player's current class, or an empty table if it has none.
+     */
+    private ComboTable comboTableOf(Player player) {
+        ComboTable table = playerTables.get(player.getUniqueId());
+        if (table == null) {
+            table = comboTableOf(selectedClassOf(player));
+            playerTables.put(player.getUniqueId(), table);
+        }
+        return table;
+    }
+
+    /**
+     * Returns the player's class from the class manager (the same source the
+     * nameplate and class passives use), or null if they have none.
+     */
+    private String selectedClassOf(Player player) {
+        String classId = plugin.getClassManager().getPlayerClass(player.getUniqueId());
+        return classId == null || classId.equals("none") ? null : classId;
+    }
+
+    private ComboTable comboTableOf(String className) {
+        if (className == null) {
+            return ComboTable.empty();
+        }
+        return comboMappings.getOrDefault(className.toLowerCase(), ComboTable.empty());
+    }
+
+    /**
+     * Re-resolves the player's combo table, and that of an active session, when their class changes.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onClassChange(ClassChangeEvent event) {
+        playerTables.remove(event.getPlayer().getUniqueId());
+        CastingSession session = activeSessions.get(event.getPlayer().getUniqueId());
+        if (session != null) {
+            session.table = comboTableOf(event.getPlayer());
+            session.resetClicks();
+        }
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        playerTables.remove(uuid);
+        timingWheel.cancel(toggleCooldowns.remove(uuid));
+        CastingSession session = activeSessions.remove(uuid);
+        if (session != null) {
+            session.invalidate();
+            session.cancelAllTimeouts();
+        }
+    }
+
+    /**
+     * Cancels the current combo with feedback; the session stays active.
+     */
+    private void rejectCombo(Player player, CastingSession session) {
+        session.resetClicks();
+        session.restartTimeout();
+        player.sendActionBar(translateHexColors(cancelMessage));
+        playSound(player, cancelSound, 1.0f, 1.0f);
+    }
+
+    /**
+     * Processes a complete combo: determines the player's class, looks up the corresponding
      * MythicMob skill mapping, and attempts to cast the skill.
      */
-    private void processCombo(Player player, String combo) {
+    private void processCombo(Player player, int combo) {
         boolean castSuccess = false;
-        String playerClass = plugin.getClassManager().getPlayerClass(player.getUniqueId());
         
         // Single declaration here (remove any others)
         CastingSession session = activeSessions.get(player.getUniqueId());
         if (session == null) return;
 
         try {
-            // Retrieve the player's selected class from the player's data.
-            String selectedClass = plugin.getPlayerDataManager().getPlayerData(player.getUniqueId()).getSelectedClass();
+            String selectedClass = selectedClassOf(player);
             if (selectedClass == null) {
                 plugin.getLogger().warning("Player " + player.getName() + " does not have a selected class.");
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    player.sendActionBar("§cNo class selected!");
-                    playSound(player, cancelSound, 1.0f, 1.0f);
-                });
+                player.sendActionBar("§cNo class selected!");
+                playSound(player, cancelSound, 1.0f, 1.0f);
+                session.resetClicks();
+                session.restartTimeout();
                 return;
             }
-            // Try to get the combo mapping from the casting configuration.
-            Map<String, String> mappings = comboMappings.get(selectedClass);
-            // If no mapping was loaded via the "casting" section,
-            // fall back to the keyCombos defined in classes.yml under "classes.<selectedClass>.keyCombos"
-            if (mappings == null || mappings.isEmpty()) {
-                File classesFile = new File(plugin.getDataFolder(), "classes.yml");
-                YamlConfiguration classesConfig = YamlConfiguration.loadConfiguration(classesFile);
-                String path = "classes." + selectedClass.toLowerCase() + ".keyCombos";
-                if (classesConfig.contains(path)) {
-                    mappings = new HashMap<>();
-                    for (String comboKey : classesConfig.getConfigurationSection(path).getKeys(false)) {
-                        String skill = classesConfig.getString(path + "." + comboKey);
-                        mappings.put(comboKey, skill);
-                    }
-                }
-            }
-            if (mappings == null || !mappings.containsKey(combo)) {
-                plugin.getLogger().info("No valid skill mapping for combo " + combo + " for class " + selectedClass);
-                // Use existing session variable instead of redeclaring
-                if (session != null) {  // Now using the existing session reference
-                    session.resetClicks();
-                    session.restartTimeout();
-                }
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    player.sendActionBar(translateHexColors(cancelMessage));
-                    player.sendActionBar(""); 
-                    playSound(player, cancelSound, 1.0f, 1.0f);
-                });
+            String skillName = session.table.skillFor(combo);
+            if (skillName == null) {
+                plugin.getLogger().info("No valid skill mapping for combo " + ComboCode.toString(combo, "")
+                        + " for class " + selectedClass);
+                rejectCombo(player, session);
                 return;
             }
-            String skillName = mappings.get(combo);
             // Attempt to cast the MythicMob skill
             castSuccess = castMythicMobSkill(player, skillName);
             if (castSuccess) {
+                long formattedTime = session.getComboNanos() / 1_000_000L;
                 session.resetClicks();
                 session.restartTimeout();
                 session.markComboUsed();
                 
-                long formattedTime = Duration.between(session.getLastClickTime(), Instant.now()).toMillis();
-                player.sendTitle("", translateHexColors("&a&l" + combo + " &r&7(" + formattedTime + "ms)"), 5, 20, 5);
+                player.sendTitle("", translateHexColors("&a&l" + ComboCode.toString(combo, "") + " &r&7(" + formattedTime + "ms)"), 5, 20, 5);
                 player.spawnParticle(Particle.HAPPY_VILLAGER, player.getEyeLocation(), 5, 0.2, 0.5, 0.2, 0.1);
             } else {
                 session.resetClicks();
                 session.restartTimeout();
-                
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    player.sendActionBar(translateHexColors(cancelMessage));
-                });
+                player.sendActionBar(translateHexColors(cancelMessage));
             }
         } catch (Exception e) {
             plugin.getLogger().severe("Error casting skill: " + e.getMessage());
@@ -399,22 +461,46 @@ public class CastingSystem implements Listener {
         return ChatColor.translateAlternateColorCodes('&', message);
     }
 
+    private static final long NANOS_PER_TICK = 50_000_000L;
+    private static final long TOGGLE_COOLDOWN_TICKS = 20L;
+
+    /**
+     * Outcome of feeding a click into a {@link CastingSession}.
+     */
+    private enum ClickResult {
+        /** Debounced: a repeat of the same button within its click lock. */
+        IGNORED,
+        /** Recorded, but no combo starts with the clicks so far. */
+        INVALID,
+        /** Recorded; the combo is not complete yet. */
+        ACCEPTED,
+        /** Recorded; the combo is complete but a longer combo starts with it. */
+        AMBIGUOUS,
+        /** Recorded and the combo is complete. */
+        COMPLETE
+    }
+
     /**
      * Inner class representing an active casting session.
      * It tracks the player's click sequence and schedules a timeout to cancel incomplete combos.
+     * Only used from the main thread.
      */
     private class CastingSession {
         private final Player player;
-        private final List<String> clicks = new ArrayList<>();
-        private Instant cooldownEnd = Instant.MIN;
-        private final List<Integer> taskIds = new ArrayList<>();
-        // Remove timestamp-based filtering; we now use a click lock.
-        private boolean clickLock = false;
-        private Instant lastClickTime = Instant.MIN;
-        private final Queue<String> clickBuffer = new ConcurrentLinkedQueue<>();
-        private static final long MAX_BUFFER_TIME_MS = 200; // Keep clicks in buffer for 200ms
-        private static final double TIMING_MULTIPLIER = 0.9; // 90% of average timing
-        private long averageClickInterval = 200; // Start with 200ms assumption
+        // The clicks so far, packed as a ComboCode.
+        private int combo = ComboCode.EMPTY;
+        // Combos of the player's class; replaced if the class changes mid-session.
+        private ComboTable table = ComboTable.empty();
+        // The table's trie node reached by the clicks so far.
+        private int node = ComboTrie.ROOT;
+        // Created on first use and rescheduled from then on.
+        private TimingWheel.Timer<Runnable> timeout;
+        private TimingWheel.Timer<Runnable> ambiguityWindow;
+        // System.nanoTime() of the last accepted click per button; MIN_VALUE if none yet.
+        private long lastLeftNanos = Long.MIN_VALUE;
+        private long lastRightNanos = Long.MIN_VALUE;
+        private long firstClickNanos;
+        private long lastClickNanos;
         private long lastComboTime = 0;  // Track last combo time
         private boolean valid = true;
 
@@ -424,104 +510,90 @@ public class CastingSystem implements Listener {
 
         /**
          * Adds a click (either "L" or "R") to the current combo.
-         * Uses a short click lock (approx 2 ticks ~100ms) to filter out repeated
-         * events when a key is held down.
+         * A click of the same button within its click lock (leftClickLock /
+         * rightClickLock ticks) is ignored, which filters out held buttons and
+         * clicks reported twice.
          */
-        public void addClick(String click) {
-            if (Instant.now().isBefore(cooldownEnd)) {
-                return; // Respect cooldown period
+        public ClickResult addClick(String click, long now) {
+            boolean left = "L".equals(click);
+            long last = left ? lastLeftNanos : lastRightNanos;
+            long lock = (left ? leftClickLockTicks : rightClickLockTicks) * NANOS_PER_TICK;
+            if (last != Long.MIN_VALUE && now - last < lock) {
+                return ClickResult.IGNORED;
             }
-            clickBuffer.add(click);
-            comboExecutor.submit(() -> {
-                try {
-                    // Process buffer after short delay
-                    Thread.sleep(10); // 10ms buffer aggregation
-                    processBuffer();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            });
+            if (left) {
+                lastLeftNanos = now;
+            } else {
+                lastRightNanos = now;
+            }
+            // A click while a shorter combo is pending continues towards the longer one.
+            timingWheel.cancel(ambiguityWindow);
+            if (combo == ComboCode.EMPTY) {
+                firstClickNanos = now;
+            }
+            int clickCode = left ? ComboCode.LEFT : ComboCode.RIGHT;
+            combo = ComboCode.append(combo, clickCode);
+            lastClickNanos = now;
+            if (table.isEmpty()) {
+                // The class changed to one without combos mid-session: let processCombo report it.
+                return ClickResult.COMPLETE;
+            }
+            node = table.next(node, clickCode);
+            if (node == ComboTrie.NONE) {
+                return ClickResult.INVALID;
+            }
+            if (table.skillAt(node) == null) {
+                return ClickResult.ACCEPTED;
+            }
+            return table.hasLongerCombos(node) ? ClickResult.AMBIGUOUS : ClickResult.COMPLETE;
         }
 
-        private void processBuffer() {
-            List<String> processedClicks = new ArrayList<>();
-            Instant cutoff = Instant.now().minusMillis(MAX_BUFFER_TIME_MS);
-            
-            while (!clickBuffer.isEmpty()) {
-                processedClicks.add(clickBuffer.poll());
-            }
-            
-            if (!processedClicks.isEmpty()) {
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    for (String click : processedClicks) {
-                        handleSingleClick(click);
-                    }
-                });
+        /**
+         * Casts the current (complete but ambiguous) combo unless another click
+         * arrives within casting.ambiguityWindowTicks.
+         */
+        public void startAmbiguityWindow() {
+            if (ambiguityWindow == null) {
+                ambiguityWindow = timingWheel.schedule(this::onAmbiguityWindowEnd, ambiguityWindowTicks);
+            } else {
+                timingWheel.reschedule(ambiguityWindow, ambiguityWindowTicks);
             }
         }
 
-        private void handleSingleClick(String click) {
-            clicks.add(click);
-            lastClickTime = Instant.now();
-            
-            // Check if we have a valid combo
-            if (clicks.size() == 3) {
-                String combo = String.join("", clicks);
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    processCombo(player, combo);
-                    resetClicks();
-                });
+        private void onAmbiguityWindowEnd() {
+            if (!valid || activeSessions.get(player.getUniqueId()) != this || combo == ComboCode.EMPTY) {
+                return;
             }
-            
-            Bukkit.getScheduler().runTask(plugin, () -> {
-                clickLock = true;
-                playSound(player, clickSound, (float) clickSoundVolume, (float) clickSoundPitch);
-                player.sendActionBar(translateHexColors("&eCombo: &b" + String.join(",", clicks)));
-            });
+            cancelTimeout();
+            processCombo(player, combo);
         }
 
         /**
          * Returns the number of clicks recorded.
          */
         public int getComboSize() {
-            return clicks.size();
+            return ComboCode.length(combo);
         }
 
         /**
-         * Returns the combo as a concatenated string without commas.
+         * Returns the clicks so far as a {@link ComboCode}.
          */
-        public String getComboString() {
-            StringBuilder sb = new StringBuilder();
-            // Create a copy of the combo list to prevent ConcurrentModificationException
-            List<String> currentCombo = new ArrayList<>(clicks);
-            for (String click : currentCombo) {
-                sb.append(click);
-            }
-            return sb.toString();
+        public int getCombo() {
+            return combo;
         }
 
         /**
-         * Starts a timeout task that will cancel the casting session if the player
-         * does not complete the three-click combo within the specified timeout.
+         * Returns the combo as a concatenated string without commas.
          */
-        public void startTimeoutTask(int timeoutSeconds) {
-            taskIds.add(Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                resetClicks();
-                activeSessions.remove(player.getUniqueId());
-                plugin.getLogger().info("Casting combo timeout for player: " + player.getName());
-                player.sendActionBar(translateHexColors(cancelMessage));
-                playSound(player, cancelSound, 1.0f, 1.0f);
-            }, timeoutSeconds * 20L).getTaskId());
+        public String getComboString() {
+            return ComboCode.toString(combo, "");
         }
 
         /**
          * Cancels the previously scheduled timeout for this casting session.
          */
         public void cancelTimeout() {
-            for (int id : taskIds) {
-                Bukkit.getScheduler().cancelTask(id);
-            }
-            taskIds.clear();
+            timingWheel.cancel(timeout);
         }
 
         /**
@@ -529,7 +601,9 @@ public class CastingSystem implements Listener {
          */
         public void resetClicks() {
             player.sendActionBar(""); // Immediately clear combo display
-            clicks.clear();
+            combo = ComboCode.EMPTY;
+            node = ComboTrie.ROOT;
+            timingWheel.cancel(ambiguityWindow);
         }
 
         /**
@@ -544,48 +618,38 @@ public class CastingSystem implements Listener {
             return elapsed < comboCooldownMillis;
         }
 
-        private void updateTiming(long newInterval) {
-            averageClickInterval = (long) (averageClickInterval * 0.7 + newInterval * 0.3);
-        }
-
-        private boolean withinTimingWindow() {
-            long timeSinceLast = Duration.between(lastClickTime, Instant.now()).toMillis();
-            return timeSinceLast < averageClickInterval * 1.5;
+        /**
+         * Returns the time between the first and the last click of the current combo.
+         */
+        public long getComboNanos() {
+            return combo == ComboCode.EMPTY ? 0L : lastClickNanos - firstClickNanos;
         }
 
-        public Instant getLastClickTime() {
-            return lastClickTime;
+        /**
+         * (Re)starts the countdown after which the session is cancelled; O(1), no scheduler task.
+         */
+        public void restartTimeout() {
+            long ticks = comboTimeoutSeconds * 20L;
+            if (timeout == null) {
+                timeout = timingWheel.schedule(this::onTimeout, ticks);
+            } else {
+                timingWheel.reschedule(timeout, ticks);
+            }
         }
 
-        public void restartTimeout() {
-            cancelAllTimeouts();
-            plugin.getLogger().warning("Scheduling NEW timeout for " + player.getName());
-            
-            int newTaskId = Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                plugin.getLogger().warning("Timeout CHECK for " + player.getName() + 
-                    " | Valid: " + valid + 
-                    " | Active: " + activeSessions.containsKey(player.getUniqueId()));
-                
-                if (!valid || !activeSessions.containsKey(player.getUniqueId())) {
-                    plugin.getLogger().warning("Aborting timeout - session dead");
-                    return;
-                }
-                
-                plugin.getLogger().warning("TIMEOUT TRIGGERED FOR " + player.getName());
-                activeSessions.remove(player.getUniqueId());
-                player.sendActionBar(translateHexColors(cancelMessage));
-                playSound(player, cancelSound, 1.0f, 1.0f);
-            }, comboTimeoutSeconds * 20L).getTaskId();
-            
-            taskIds.add(newTaskId);
+        private void onTimeout() {
+            if (!valid || activeSessions.get(player.getUniqueId()) != this) {
+                return;
+            }
+            plugin.getLogger().info("Casting combo timeout for player: " + player.getName());
+            activeSessions.remove(player.getUniqueId());
+            player.sendActionBar(translateHexColors(cancelMessage));
+            playSound(player, cancelSound, 1.0f, 1.0f);
         }
 
         public void cancelAllTimeouts() {
-            plugin.getLogger().warning("Cancelling " + taskIds.size() + " timeouts for " + player.getName());
-            for (int id : taskIds) {
-                Bukkit.getScheduler().cancelTask(id);
-            }
-            taskIds.clear();
+            cancelTimeout();
+            timingWheel.cancel(ambiguityWindow);
         }
 
         public void markComboUsed() {
@@ -602,10 +666,8 @@ public class CastingSystem implements Listener {
      * Call this method on /reload so the casting system picks up configuration changes.
      */
     public void reloadCastingConfiguration() {
-        comboExecutor.submit(() -> {
-            loadConfiguration();
-            plugin.getLogger().info("Casting config cache invalidated and reloaded");
-        });
+        loadConfiguration();
+        plugin.getLogger().info("Casting config cache invalidated and reloaded");
     }
 
     private long getConfigHash(File file) throws Exception {
@@ -617,10 +679,11 @@ public class CastingSystem implements Listener {
 
     private static class CastingConfig {
         final int timeout;
+        final long ambiguityWindowTicks;
         final long comboCooldownMillis;
         final int leftClickLock;
         final int rightClickLock;
-        final Map<String, Map<String, String>> comboMappings;
+        final Map<String, ComboTable> comboMappings;
         final String activationSound;
         final String cancelSound;
         final String successSound;
@@ -631,12 +694,13 @@ public class CastingSystem implements Listener {
         final String cancelMessage;
         final String successMessage;
         
-        CastingConfig(YamlConfiguration config) {
+        CastingConfig(YamlConfiguration config, Logger logger) {
             this.timeout = config.getInt("casting.timeout", 5);
+            this.ambiguityWindowTicks = Math.max(1L, config.getLong("casting.ambiguityWindowTicks", 5L));
             this.comboCooldownMillis = config.getLong("casting.comboCooldownMillis", 1000);
             this.leftClickLock = config.getInt("casting.leftClickLock", 1);
             this.rightClickLock = config.getInt("casting.rightClickLock", 4);
-            this.comboMappings = loadComboMappings(config);
+            this.comboMappings = loadComboMappings(config, logger);
             this.activationSound = config.getString("casting.activationSound", "ENTITY_EXPERIENCE_ORB_PICKUP");
             this.cancelSound = config.getString("casting.cancelSound", "ENTITY_BLAZE_HURT");
             this.successSound = config.getString("casting.successSound", "ENTITY_PLAYER_LEVELUP");
@@ -648,8 +712,12 @@ public class CastingSystem implements Listener {
             this.successMessage = config.getString("casting.successMessage", "&bSkill Cast Successful!");
         }
 
-        private Map<String, Map<String, String>> loadComboMappings(YamlConfiguration config) {
-            Map<String, Map<String, String>> mappings = new HashMap<>();
+        /**
+         * Compiles casting.comboMappings and, for classes without an entry there,
+         * classes.&lt;id&gt;.keyCombos. Keys are lower-case class names.
+         */
+        private Map<String, ComboTable> loadComboMappings(YamlConfiguration config, Logger logger) {
+            Map<String, ComboTable> mappings = new HashMap<>();
             if (config.contains("casting.comboMappings")) {
                 for (String className : config.getConfigurationSection("casting.comboMappings").getKeys(false)) {
                     Map<String, String> mapping = new HashMap<>();
@@ -657,10 +725,26 @@ public class CastingSystem implements Listener {
                         String skillName = config.getString("casting.comboMappings." + className + "." + combo);
                         mapping.put(combo, skillName);
                     }
-                    mappings.put(className, mapping);
+                    ComboTable table = ComboTable.compile(mapping, "class " + className, logger);
+                    if (!table.isEmpty()) {
+                        mappings.put(className.toLowerCase(), table);
+                    }
+                }
+            }
+            if (config.contains("classes")) {
+                for (String classId : config.getConfigurationSection("classes").getKeys(false)) {
+                    String path = "classes." + classId + ".keyCombos";
+                    if (mappings.containsKey(classId.toLowerCase()) || !config.isConfigurationSection(path)) {
+                        continue;
+                    }
+                    Map<String, String> mapping = new HashMap<>();
+                    for (String combo : config.getConfigurationSection(path).getKeys(false)) {
+                        mapping.put(combo, config.getString(path + "." + combo));
+                    }
+                    mappings.put(classId.toLowerCase(), ComboTable.compile(mapping, "class " + classId, logger));
                 }
             }
-            return mappings;
+            return Collections.unmodifiableMap(mappings);
         }
     }
 
@@ -0,0 +1,75 @@
+package com.sandcore.casting;
+
+/**
+ * Packs a click combo into a single int.
+ *
+ * The low 3 bits hold the number of clicks; click {@code i} is stored in the
+ * 2 bits starting at bit {@code 3 + 2 * i}. Every combo up to
+ * {@link #MAX_LENGTH} clicks has a distinct, small, non-negative code, so a
+ * session's input is a single int that is never allocated.
+ */
+public final class ComboCode {
+    public static final int EMPTY = 0;
+    public static final int LEFT = 1;
+    public static final int RIGHT = 2;
+    public static final int MAX_LENGTH = 6;
+
+    private static final int LENGTH_BITS = 3;
+    private static final int LENGTH_MASK = (1 << LENGTH_BITS) - 1;
+
+    private ComboCode() {
+    }
+
+    public static int length(int code) {
+        return code & LENGTH_MASK;
+    }
+
+    /**
+     * Returns the combo with one more click, or the combo itself if it is already {@link #MAX_LENGTH} long.
+     */
+    public static int append(int code, int click) {
+        int length = length(code);
+        if (length >= MAX_LENGTH) {
+            return code;
+        }
+        return (code | click << (LENGTH_BITS + 2 * length)) + 1;
+    }
+
+    public static int clickAt(int code, int index) {
+        return (code >>> (LENGTH_BITS + 2 * index)) & 3;
+    }
+
+    /**
+     * Parses a combo such as "LRL" or "L,R,L" (case-insensitive).
+     *
+     * @return the code, or -1 if the combo is empty, too long or contains anything but L and R.
+     */
+    public static int parse(String combo) {
+        int code = EMPTY;
+        for (int i = 0; i < combo.length(); i++) {
+            char c = Character.toUpperCase(combo.charAt(i));
+            if (c == ',' || c == '-' || c == ' ') {
+                continue;
+            }
+            if ((c != 'L' && c != 'R') || length(code) >= MAX_LENGTH) {
+                return -1;
+            }
+            code = append(code, c == 'L' ? LEFT : RIGHT);
+        }
+        return length(code) > 0 ? code : -1;
+    }
+
+    /**
+     * Formats a combo as its clicks ("L"/"R") joined by the separator.
+     */
+    public static String toString(int code, String separator) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length(code); i++) {
+            if (i > 0) {
+                sb.append(separator);
+            }
+            sb.append(clickAt(code, i) == LEFT ? 'L' : 'R');
+        }
+        return sb.toString();
+    }
+}
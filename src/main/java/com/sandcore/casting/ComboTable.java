@@ -0,0 +1,107 @@
+package com.sandcore.casting;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * One class's combos, compiled into a flattened {@link ComboTrie}.
+ *
+ * Combos may be 1 to {@link ComboCode#MAX_LENGTH} clicks long. Casting walks
+ * the trie one click at a time: a click with no child rejects the input at
+ * once, a node with a skill and no children completes the combo, and a node
+ * with both is ambiguous (a shorter combo that is also the start of a longer
+ * one). Immutable once built.
+ */
+public final class ComboTable {
+    private static final ComboTable EMPTY = new ComboTable(ComboTrie.build(new int[0]), new String[0], 0);
+
+    private final ComboTrie trie;
+    private final String[] skills;
+    private final int maxLength;
+
+    private ComboTable(ComboTrie trie, String[] skills, int maxLength) {
+        this.trie = trie;
+        this.skills = skills;
+        this.maxLength = maxLength;
+    }
+
+    public static ComboTable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Compiles combo patterns (see {@link ComboCode#parse(String)}) mapped to skill names.
+     * Invalid patterns are logged and skipped.
+     *
+     * @param owner used in log messages, e.g. the class id.
+     */
+    public static ComboTable compile(Map<String, String> combos, String owner, Logger logger) {
+        // Keyed by code: "LRL" and "L,R,L" are the same combo.
+        Map<Integer, String> byCode = new LinkedHashMap<>();
+        int maxLength = 0;
+        for (Map.Entry<String, String> combo : combos.entrySet()) {
+            int code = ComboCode.parse(combo.getKey());
+            if (code < 0 || combo.getValue() == null || combo.getValue().isEmpty()) {
+                logger.warning("Invalid combo '" + combo.getKey() + "' for " + owner
+                        + " (use 1 to " + ComboCode.MAX_LENGTH + " L/R clicks and a skill name); skipped.");
+                continue;
+            }
+            if (byCode.put(code, combo.getValue()) != null) {
+                logger.warning("Combo '" + combo.getKey() + "' for " + owner + " is defined twice; using " + combo.getValue());
+            }
+            maxLength = Math.max(maxLength, ComboCode.length(code));
+        }
+        if (byCode.isEmpty()) {
+            return EMPTY;
+        }
+
+        int[] codes = new int[byCode.size()];
+        String[] skills = new String[byCode.size()];
+        int i = 0;
+        for (Map.Entry<Integer, String> entry : byCode.entrySet()) {
+            codes[i] = entry.getKey();
+            skills[i++] = entry.getValue();
+        }
+        return new ComboTable(ComboTrie.build(codes), skills, maxLength);
+    }
+
+    /**
+     * Returns the trie node after one more click, or {@link ComboTrie#NONE} if no combo continues that way.
+     * Start from {@link ComboTrie#ROOT}.
+     */
+    public int next(int node, int click) {
+        return trie.next(node, click);
+    }
+
+    /**
+     * Returns the skill of the combo ending at a trie node, or null if the node is only a prefix.
+     */
+    public String skillAt(int node) {
+        int value = trie.valueOf(node);
+        return value != ComboTrie.NONE ? skills[value] : null;
+    }
+
+    /**
+     * Whether a longer combo continues from a trie node.
+     */
+    public boolean hasLongerCombos(int node) {
+        return trie.hasChildren(node);
+    }
+
+    /**
+     * Returns the skill cast by the combo, or null if it is not a complete combo.
+     */
+    public String skillFor(int code) {
+        int node = trie.find(code);
+        return node != ComboTrie.NONE ? skillAt(node) : null;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public boolean isEmpty() {
+        return skills.length == 0;
+    }
+}
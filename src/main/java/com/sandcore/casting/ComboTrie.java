@@ -1,41 +1,89 @@
 package com.sandcore.casting;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
-public class ComboTrie {
-    private final TrieNode root = new TrieNode();
-    
-    class TrieNode {
-        Map<String, TrieNode> children = new HashMap<>();
-        boolean isCombo;
+import java.util.Arrays;
+
+/**
+ * A trie over click combos, flattened into int arrays.
+ *
+ * Nodes are numbered from {@link #ROOT}; the children of a node sit next to
+ * each other in one array, so following a click is one array read and a whole
+ * class's trie fits in a few cache lines. Each node stores the value of the
+ * combo ending there (or {@link #NONE}). Immutable once built.
+ */
+public final class ComboTrie {
+    public static final int ROOT = 0;
+    public static final int NONE = -1;
+
+    // Child of node n for click c (ComboCode.LEFT / RIGHT) at [n * 2 + c - 1].
+    private final int[] children;
+    private final int[] values;
+
+    private ComboTrie(int[] children, int[] values) {
+        this.children = children;
+        this.values = values;
     }
-    
-    public void insertCombo(String combo) {
-        TrieNode node = root;
-        String[] clicks = combo.split("");
-        for (String click : clicks) {
-            node = node.children.computeIfAbsent(click, k -> new TrieNode());
+
+    /**
+     * Builds a trie of the given combos; the value of {@code codes[i]} is {@code i}.
+     * A combo listed twice keeps the later value.
+     */
+    public static ComboTrie build(int[] codes) {
+        int capacity = 1;
+        for (int code : codes) {
+            capacity += ComboCode.length(code);
         }
-        node.isCombo = true;
-    }
-    
-    public boolean isPotentialCombo(List<String> current) {
-        TrieNode node = root;
-        for (String click : current) {
-            node = node.children.get(click);
-            if (node == null) return false;
+        int[] children = new int[capacity * 2];
+        int[] values = new int[capacity];
+        Arrays.fill(children, NONE);
+        Arrays.fill(values, NONE);
+        int size = 1;
+        for (int i = 0; i < codes.length; i++) {
+            int node = ROOT;
+            for (int click = 0; click < ComboCode.length(codes[i]); click++) {
+                int slot = node * 2 + ComboCode.clickAt(codes[i], click) - 1;
+                if (children[slot] == NONE) {
+                    children[slot] = size++;
+                }
+                node = children[slot];
+            }
+            values[node] = i;
         }
-        return true;
+        return new ComboTrie(Arrays.copyOf(children, size * 2), Arrays.copyOf(values, size));
+    }
+
+    /**
+     * Returns the node reached from {@code node} by a click, or {@link #NONE} if no combo continues that way.
+     */
+    public int next(int node, int click) {
+        return children[node * 2 + click - 1];
     }
-    
-    public boolean isExactMatch(List<String> current) {
-        TrieNode node = root;
-        for (String click : current) {
-            node = node.children.get(click);
-            if (node == null) return false;
+
+    /**
+     * Returns the node of a combo, or {@link #NONE} if no combo starts with it.
+     */
+    public int find(int code) {
+        int node = ROOT;
+        for (int i = 0; i < ComboCode.length(code) && node != NONE; i++) {
+            node = next(node, ComboCode.clickAt(code, i));
         }
-        return node.isCombo;
+        return node;
+    }
+
+    /**
+     * Returns the value of the combo ending at the node, or {@link #NONE} if it is only a prefix.
+     */
+    public int valueOf(int node) {
+        return values[node];
+    }
+
+    /**
+     * Whether a longer combo continues from the node.
+     */
+    public boolean hasChildren(int node) {
+        return children[node * 2] != NONE || children[node * 2 + 1] != NONE;
+    }
+
+    public int size() {
+        return values.length;
     }
-} 
\ No newline at end of file
+}
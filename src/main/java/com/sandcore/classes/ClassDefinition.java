@@ -1,7 +1,11 @@
 package com.sandcore.classes;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
+import com.sandcore.stat.StatModifier;
+
 public class ClassDefinition {
     private String id;
     private String displayName;
@@ -9,6 +13,7 @@ public class ClassDefinition {
     private String material;
     private int slot;
     private Map<String, String> keyCombos;
+    private List<StatModifier> passives = new ArrayList<>();
 
     public ClassDefinition(String id, String displayName, String lore, String material, int slot) {
         this.id = id;
@@ -45,4 +50,12 @@ public class ClassDefinition {
     public void setKeyCombos(Map<String, String> keyCombos) {
         this.keyCombos = keyCombos;
     }
-} 
\ No newline at end of file
+
+    public List<StatModifier> getPassives() {
+        return passives;
+    }
+
+    public void setPassives(List<StatModifier> passives) {
+        this.passives = passives;
+    }
+}
@@ -1,16 +1,21 @@
 package com.sandcore.classes;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import com.sandcore.events.ClassChangeEvent;
+import com.sandcore.stat.StatModifier;
 import com.sandcore.util.ChatUtil;
 
 /**
@@ -105,6 +110,21 @@ public class ClassManager {
                         }
                         classDefinition.setKeyCombos(keyCombos);
                     }
+
+                    // Parse passive stat modifiers (e.g. "strength: 5", "mana_regen: 10%").
+                    if (sec.isConfigurationSection("passives")) {
+                        ConfigurationSection passivesSection = sec.getConfigurationSection("passives");
+                        List<StatModifier> passives = new ArrayList<>();
+                        for (String attribute : passivesSection.getKeys(false)) {
+                            StatModifier modifier = StatModifier.parse(attribute, passivesSection.get(attribute));
+                            if (modifier == null) {
+                                plugin.getLogger().warning("Invalid passive for class " + key + ": " + attribute);
+                                continue;
+                            }
+                            passives.add(modifier);
+                        }
+                        classDefinition.setPassives(passives);
+                    }
                     
                     // Store or register the class definition as per your implementation.
                     classes.put(key.toLowerCase(), classDefinition);
@@ -170,6 +190,7 @@ public class ClassManager {
             return;
         }
         // Update in-memory mapping.
+        String oldClass = playerClasses.getOrDefault(player.getUniqueId(), "none");
         playerClasses.put(player.getUniqueId(), classId);
         // Update persistent storage.
         playerClassConfig.set(player.getUniqueId().toString(), classId);
@@ -180,6 +201,9 @@ public class ClassManager {
             plugin.getLogger().severe("Error saving player class data: " + e.getMessage());
             e.printStackTrace();
         }
+        if (!oldClass.equals(classId)) {
+            Bukkit.getPluginManager().callEvent(new ClassChangeEvent(player, oldClass, classId));
+        }
     }
 
     /**
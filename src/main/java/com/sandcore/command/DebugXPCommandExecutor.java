@@ -9,6 +9,7 @@ import org.bukkit.entity.Player;
 import com.sandcore.SandCore;
 import com.sandcore.data.PlayerData;
 import com.sandcore.data.PlayerDataManager;
+import com.sandcore.events.LevelChangeEvent;
 import com.sandcore.hud.HUDManager;
 import com.sandcore.levels.LevelManager;
 
@@ -80,6 +81,7 @@ public class DebugXPCommandExecutor implements CommandExecutor {
                     data.getLevel() + " [" + data.getXP() + " XP]).");
             if (leveledUp) {
                 target.sendMessage("§aYou leveled up!");
+                Bukkit.getPluginManager().callEvent(new LevelChangeEvent(target, previousLevel, data.getLevel()));
             }
         }
         
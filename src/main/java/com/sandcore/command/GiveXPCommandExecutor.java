@@ -10,6 +10,7 @@ import org.bukkit.entity.Player;
 import com.sandcore.SandCore;
 import com.sandcore.data.PlayerData;
 import com.sandcore.data.PlayerDataManager;
+import com.sandcore.events.LevelChangeEvent;
 import com.sandcore.hud.HUDManager;
 import com.sandcore.levels.LevelManager;
 import com.sandcore.util.ChatUtil;
@@ -68,6 +69,8 @@ public class GiveXPCommandExecutor implements CommandExecutor {
         
         // If the player leveled up, send a custom message and play a sound from the config.
         if (leveledUp && data.getLevel() > oldLevel) {
+            Bukkit.getPluginManager().callEvent(new LevelChangeEvent(target, oldLevel, data.getLevel()));
+
             String msgTemplate = plugin.getConfig().getString("levelUp.message", 
                     "§aCongratulations, you have reached level {level}!");
             String levelUpMessage = ChatUtil.translateHexColorCodes(
@@ -1,19 +1,35 @@
 package com.sandcore.command;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
 
 import com.sandcore.SandCore;
+import com.sandcore.classes.ClassDefinition;
+import com.sandcore.damage.CombatSimulator;
+import com.sandcore.damage.CombatTelemetry;
 import com.sandcore.items.ItemsManager;
+import com.sandcore.stat.StatModifier;
+import com.sandcore.status.StatusEffectManager;
 
 public class MainCommandExecutor implements CommandExecutor {
 
     private final SandCore plugin;
     private final ItemsManager itemsManager;
     private final ItemCommandExecutor itemCommandExecutor;
+    // Only one simulation at a time; each one saturates the fork/join pool.
+    private final AtomicBoolean simulating = new AtomicBoolean();
 
     public MainCommandExecutor(SandCore plugin, ItemsManager itemsManager) {
         this.plugin = plugin;
@@ -41,6 +57,15 @@ public class MainCommandExecutor implements CommandExecutor {
                     return itemCommandExecutor.onCommand(sender, command, label, newArgs);
                 }
                 break;
+            case "combatstats":
+                handleCombatStats(sender, args);
+                return true;
+            case "effect":
+                handleEffect(sender, args);
+                return true;
+            case "simulate":
+                handleSimulate(sender, args);
+                return true;
             case "reloadcast":
                 sender.sendMessage("Casting system has been removed.");
                 return true;
@@ -62,6 +87,28 @@ public class MainCommandExecutor implements CommandExecutor {
             plugin.reloadConfig();
             plugin.getLevelManager().loadConfig(plugin.getConfig());
             plugin.getClassManager().reloadClasses();
+            // Recompiles the combo tables from classes.yml.
+            plugin.getCastingSystem().reloadCastingConfiguration();
+            if (plugin.getMobLevelService() != null) {
+                plugin.getMobLevelService().loadConfiguration();
+            }
+            // Damage formulas are recompiled once the new stat registry is live.
+            plugin.getStatManager().reload(() -> plugin.getDamageEngine().loadFormulas());
+            if (plugin.getNameplateService() != null) {
+                plugin.getNameplateService().loadConfiguration();
+            }
+            if (plugin.getDamageIndicatorService() != null) {
+                plugin.getDamageIndicatorService().loadConfiguration();
+            }
+            if (plugin.getHealthService() != null) {
+                plugin.getHealthService().loadConfiguration();
+            }
+            if (plugin.getCombatEffectsService() != null) {
+                plugin.getCombatEffectsService().loadConfiguration();
+            }
+            plugin.getStatusEffectManager().loadConfiguration();
+            // Item and class definitions were replaced; re-apply their modifiers.
+            plugin.getStatModifierListener().refreshAll();
             
             sender.sendMessage("§aConfigurations reloaded successfully!");
             sender.sendMessage("§aUpdated " + itemsManager.getItemCount() + " items in player inventories");
@@ -72,9 +119,176 @@ public class MainCommandExecutor implements CommandExecutor {
         }
     }
 
+    private void handleCombatStats(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("sandcore.command.combatstats")) {
+            sender.sendMessage("§cYou don't have permission to view combat stats!");
+            return;
+        }
+        CombatTelemetry telemetry = plugin.getDamageEngine().getTelemetry();
+        if (telemetry == null) {
+            sender.sendMessage("§cCombat telemetry is disabled in config.yml (telemetry.enabled).");
+            return;
+        }
+
+        if (args.length > 1 && args[1].equalsIgnoreCase("dump")) {
+            File folder = new File(plugin.getDataFolder(), "telemetry");
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                String message;
+                try {
+                    File file = telemetry.dump(folder, uuid -> Bukkit.getOfflinePlayer(uuid).getName());
+                    message = "§aCombat stats written to telemetry/" + file.getName();
+                } catch (IOException e) {
+                    message = "§cCould not write combat stats: " + e.getMessage();
+                    plugin.getLogger().severe("Combat stats dump failed: " + e.getMessage());
+                }
+                String result = message;
+                Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(result));
+            });
+            return;
+        }
+
+        if (args.length > 1) {
+            Player target = Bukkit.getPlayerExact(args[1]);
+            if (target == null) {
+                sender.sendMessage("§cPlayer not found: " + args[1]);
+                return;
+            }
+            sender.sendMessage("§6Combat stats for " + target.getName() + " §7(last " + telemetry.getWindowSeconds() + "s)");
+            sendSummary(sender, telemetry.getPlayerSummary(target.getUniqueId()));
+            return;
+        }
+
+        sender.sendMessage("§6Combat stats by class §7(last " + telemetry.getWindowSeconds() + "s)");
+        Map<String, CombatTelemetry.Summary> classes = telemetry.getClassSummaries();
+        if (classes.isEmpty()) {
+            sender.sendMessage("§7No combat recorded yet.");
+        }
+        for (Map.Entry<String, CombatTelemetry.Summary> entry : classes.entrySet()) {
+            sender.sendMessage("§e" + entry.getKey() + ":");
+            sendSummary(sender, entry.getValue());
+        }
+    }
+
+    private void handleEffect(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("sandcore.command.effect")) {
+            sender.sendMessage("§cYou don't have permission to manage status effects!");
+            return;
+        }
+        if (args.length < 3) {
+            sender.sendMessage("§cUsage: /sandcore effect <player> <effect|clear> [seconds]");
+            return;
+        }
+        Player target = Bukkit.getPlayerExact(args[1]);
+        if (target == null) {
+            sender.sendMessage("§cPlayer not found: " + args[1]);
+            return;
+        }
+        StatusEffectManager effects = plugin.getStatusEffectManager();
+        if (args[2].equalsIgnoreCase("clear")) {
+            effects.clear(target);
+            sender.sendMessage("§aCleared all status effects of " + target.getName());
+            return;
+        }
+        if (!effects.getEffectIds().contains(args[2].toLowerCase())) {
+            sender.sendMessage("§cUnknown status effect: " + args[2]);
+            return;
+        }
+        boolean applied;
+        if (args.length > 3) {
+            try {
+                applied = effects.apply(target, args[2], Math.round(Double.parseDouble(args[3]) * 20));
+            } catch (NumberFormatException e) {
+                sender.sendMessage("§cInvalid duration: " + args[3]);
+                return;
+            }
+        } else {
+            applied = effects.apply(target, args[2]);
+        }
+        if (applied) {
+            sender.sendMessage("§aApplied " + args[2].toLowerCase() + " to " + target.getName()
+                    + " §7(" + effects.getStacks(target, args[2]) + " stacks)");
+        } else {
+            sender.sendMessage("§e" + target.getName() + " already has " + args[2].toLowerCase() + ".");
+        }
+    }
+
+    private void handleSimulate(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("sandcore.command.simulate")) {
+            sender.sendMessage("§cYou don't have permission to run simulations!");
+            return;
+        }
+        Integer level = null;
+        Integer fights = null;
+        try {
+            if (args.length > 1) {
+                level = Integer.parseInt(args[1]);
+            }
+            if (args.length > 2) {
+                fights = Integer.parseInt(args[2]);
+            }
+        } catch (NumberFormatException e) {
+            sender.sendMessage("§cUsage: /sandcore simulate [level] [fights]");
+            return;
+        }
+
+        // Compiled here from the loaded config; only the fights run off the main thread.
+        Map<String, List<StatModifier>> classes = new LinkedHashMap<>();
+        for (ClassDefinition definition : plugin.getClassManager().getAllClasses().values()) {
+            classes.put(definition.getId().toLowerCase(), definition.getPassives());
+        }
+        CombatSimulator simulator = new CombatSimulator(plugin.getConfig(), classes, plugin.getLogger());
+        if (fights != null) {
+            simulator.setFights(fights);
+        }
+        // Claimed only once the simulator is built, so a failure above cannot leave it set.
+        if (!simulating.compareAndSet(false, true)) {
+            sender.sendMessage("§cA simulation is already running.");
+            return;
+        }
+        File folder = new File(plugin.getDataFolder(), "simulations");
+        Integer onlyLevel = level;
+        sender.sendMessage("§7Simulating " + simulator.getFights() + " fights per matchup...");
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<String> messages = new ArrayList<>();
+            try {
+                long start = System.nanoTime();
+                List<CombatSimulator.Result> results = onlyLevel != null ? simulator.run(onlyLevel) : simulator.run();
+                File file = CombatSimulator.write(results, folder);
+                if (onlyLevel != null) {
+                    for (CombatSimulator.Result result : results) {
+                        messages.add(String.format("§e%s §7vs §e%s§7: dmg §f%.1f §7(p50 §f%.1f§7, p99 §f%.1f§7) TTK §f%.1fs §7(p99 §f%.1fs§7)",
+                                result.getAttacker(), result.getDefender(), result.getMeanDamage(), result.getP50Damage(),
+                                result.getP99Damage(), result.getP50TtkSeconds(), result.getP99TtkSeconds()));
+                    }
+                }
+                messages.add(String.format("§a%d matchups simulated in %.1fs, written to simulations/%s",
+                        results.size(), (System.nanoTime() - start) / 1e9, file.getName()));
+            } catch (IllegalArgumentException e) {
+                messages.add("§c" + e.getMessage());
+            } catch (IOException e) {
+                messages.add("§cCould not write simulation results: " + e.getMessage());
+                plugin.getLogger().severe("Simulation output failed: " + e.getMessage());
+            } finally {
+                simulating.set(false);
+            }
+            Bukkit.getScheduler().runTask(plugin, () -> messages.forEach(sender::sendMessage));
+        });
+    }
+
+    private void sendSummary(CommandSender sender, CombatTelemetry.Summary summary) {
+        sender.sendMessage(String.format("§7  DPS: §f%.1f §7Hits: §f%d §7Crit rate: §f%.1f%%",
+                summary.getDps(), summary.getHits(), summary.getCritRate() * 100));
+        sender.sendMessage(String.format("§7  Dealt: §f%.1f §7Taken: §f%.1f §7Mitigated: §f%.1f%%",
+                summary.getDamageDealt(), summary.getDamageTaken(), summary.getMitigation() * 100));
+    }
+
     private void sendHelp(CommandSender sender) {
         sender.sendMessage("§6SandCore Commands:");
         sender.sendMessage("§a/sandcore reload §7- Reload plugin configs");
         sender.sendMessage("§a/sandcore item give <player> <item> [amount] §7- Give custom items");
+        sender.sendMessage("§a/sandcore combatstats [player|dump] §7- View or export combat telemetry");
+        sender.sendMessage("§a/sandcore effect <player> <effect|clear> [seconds] §7- Apply or clear status effects");
+        sender.sendMessage("§a/sandcore simulate [level] [fights] §7- Simulate class matchups offline");
     }
 } 
\ No newline at end of file
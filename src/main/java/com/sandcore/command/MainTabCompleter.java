@@ -5,20 +5,24 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.util.StringUtil;
 
 import com.sandcore.items.ItemsManager;
+import com.sandcore.status.StatusEffectManager;
 
 public class MainTabCompleter implements TabCompleter {
     private final ItemsManager itemsManager;
-    private final List<String> mainSubcommands = Arrays.asList("reload", "item", "help");
+    private final StatusEffectManager statusEffectManager;
+    private final List<String> mainSubcommands = Arrays.asList("reload", "item", "combatstats", "effect", "simulate", "help");
     private final List<String> itemSubcommands = Collections.singletonList("give");
 
-    public MainTabCompleter(ItemsManager itemsManager) {
+    public MainTabCompleter(ItemsManager itemsManager, StatusEffectManager statusEffectManager) {
         this.itemsManager = itemsManager;
+        this.statusEffectManager = statusEffectManager;
     }
 
     @Override
@@ -45,6 +49,27 @@ public class MainTabCompleter implements TabCompleter {
             }
         }
         
+        // /sandcore combatstats [player|dump]
+        if (subCommand.equals("combatstats") && args.length == 2) {
+            List<String> options = new ArrayList<>();
+            options.add("dump");
+            Bukkit.getOnlinePlayers().forEach(player -> options.add(player.getName()));
+            return StringUtil.copyPartialMatches(args[1], options, new ArrayList<>());
+        }
+
+        // /sandcore effect <player> <effect|clear> [seconds]
+        if (subCommand.equals("effect")) {
+            if (args.length == 2) {
+                return null; // Bukkit handles online players
+            }
+            if (args.length == 3) {
+                List<String> options = new ArrayList<>(statusEffectManager.getEffectIds());
+                options.add("clear");
+                return StringUtil.copyPartialMatches(args[2], options, new ArrayList<>());
+            }
+            return Collections.emptyList();
+        }
+
         // Handle 'reload' - no arguments needed
         if (subCommand.equals("reload") && args.length > 1) {
             return Collections.emptyList();
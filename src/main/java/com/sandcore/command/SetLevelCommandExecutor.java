@@ -10,6 +10,7 @@ import org.bukkit.entity.Player;
 import com.sandcore.SandCore;
 import com.sandcore.data.PlayerData;
 import com.sandcore.data.PlayerDataManager;
+import com.sandcore.events.LevelChangeEvent;
 import com.sandcore.hud.HUDManager;
 import com.sandcore.levels.LevelManager;
 
@@ -61,12 +62,16 @@ public class SetLevelCommandExecutor implements CommandExecutor {
         }
         
         PlayerData data = playerDataManager.getPlayerData(target.getUniqueId());
+        int oldLevel = data.getLevel();
         data.setLevel(level);
         // Set XP to the minimum required for that level.
         int xpForLevel = levelManager.getXPForLevel(level);
         data.setXP(xpForLevel);
         
         hudManager.updateHUD(target, data);
+        if (oldLevel != level) {
+            Bukkit.getPluginManager().callEvent(new LevelChangeEvent(target, oldLevel, level));
+        }
         plugin.getLogger().info("Admin " + sender.getName() + " set " + target.getName() + "'s level to " + level);
         sender.sendMessage("§aSet " + target.getName() + "'s level to " + level);
         target.sendMessage("§aYour level has been set to " + level);
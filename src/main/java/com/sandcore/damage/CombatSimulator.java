@@ -0,0 +1,522 @@
+package com.sandcore.damage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Logger;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import com.sandcore.stat.StatGraph;
+import com.sandcore.stat.StatModifier;
+
+/**
+ * CombatSimulator runs class-vs-class fights through the same compiled stat graph
+ * and {@link DamagePipeline} as {@link DamageEngine}, without a server, to tune
+ * attributes.secondary and damage.formulas offline.
+ *
+ * For every level and every attacker/defender pair of classes it simulates a
+ * number of fights, each one hitting until the defender's health is gone, and
+ * reports the per-hit damage distribution and the time to kill. Matchups and the
+ * fights within them are split across the fork/join pool; every leaf task has its
+ * own crit session seeded from the configured seed, so a run is reproducible.
+ *
+ * Characters are built from their class passives and level only (no allocated
+ * points or equipment).
+ *
+ * Configuration (config.yml):
+ * - simulation.fights: fights per matchup (default: 10000)
+ * - simulation.levels: levels to simulate (default: 1 to maxLevel)
+ * - simulation.attack_interval: seconds between hits (default: 0.625)
+ * - simulation.health_attribute: attribute holding a character's health (default: max_health)
+ * - simulation.damage_type: physical or magical (default: physical)
+ * - simulation.class_damage_types.&lt;class&gt;: per-class override of damage_type
+ * - simulation.seed: base seed of every crit session (default: 0)
+ *
+ * Run from the console with /sandcore simulate, or standalone:
+ * java -cp SandCore.jar:paper-api.jar com.sandcore.damage.CombatSimulator config.yml [classes.yml] [fights]
+ */
+public final class CombatSimulator {
+    // Fights per leaf task.
+    private static final int THRESHOLD = 512;
+    // Guards against fights that can never end, e.g. with min_damage 0 and full defense.
+    private static final int MAX_HITS = 10_000;
+
+    private final DamagePipeline pipeline;
+    private final CritRoller.Mode critMode;
+    private final int[] levels;
+    private final double attackInterval;
+    private final long seed;
+    private final String[] classIds;
+    private final DamageType[] damageTypes;
+    // Values by [class][level index], indexed by registry slot.
+    private final double[][][] profiles;
+    private final int healthSlot;
+    private int fights;
+
+    /**
+     * Compiles the stat graph and damage pipeline from a config.yml.
+     *
+     * @param config the root of config.yml.
+     * @param classes passive modifiers by class id.
+     */
+    public CombatSimulator(ConfigurationSection config, Map<String, List<StatModifier>> classes, Logger logger) {
+        StatGraph graph = StatGraph.compile(config.getConfigurationSection("attributes"), logger);
+        ConfigurationSection damage = config.getConfigurationSection("damage");
+        this.pipeline = new DamagePipeline(damage, graph.getRegistry(), logger);
+        this.critMode = damage != null && "prd".equalsIgnoreCase(damage.getString("crit.mode", "random"))
+                ? CritRoller.Mode.PRD : CritRoller.Mode.RANDOM;
+
+        ConfigurationSection simulation = config.getConfigurationSection("simulation");
+        if (simulation == null) {
+            simulation = new YamlConfiguration();
+        }
+        this.fights = Math.max(1, simulation.getInt("fights", 10000));
+        this.attackInterval = simulation.getDouble("attack_interval", 0.625);
+        this.seed = simulation.getLong("seed", 0L);
+        List<Integer> configuredLevels = simulation.getIntegerList("levels");
+        if (configuredLevels.isEmpty()) {
+            int maxLevel = Math.max(1, config.getInt("maxLevel", 1));
+            this.levels = new int[maxLevel];
+            for (int i = 0; i < maxLevel; i++) {
+                levels[i] = i + 1;
+            }
+        } else {
+            this.levels = configuredLevels.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        DamageType defaultType = parseType(simulation.getString("damage_type", "physical"), DamageType.PHYSICAL, logger);
+        this.classIds = classes.keySet().toArray(new String[0]);
+        this.damageTypes = new DamageType[classIds.length];
+        this.profiles = new double[classIds.length][levels.length][];
+        for (int c = 0; c < classIds.length; c++) {
+            damageTypes[c] = parseType(simulation.getString("class_damage_types." + classIds[c]), defaultType, logger);
+            for (int l = 0; l < levels.length; l++) {
+                profiles[c][l] = graph.evaluate(levels[l], Collections.emptyMap(), classes.get(classIds[c]));
+            }
+        }
+        this.healthSlot = graph.getRegistry().slotOf(simulation.getString("health_attribute", "max_health"));
+        if (healthSlot < 0) {
+            logger.warning("Unknown simulation.health_attribute; time to kill will not be reported.");
+        }
+    }
+
+    public void setFights(int fights) {
+        this.fights = Math.max(1, fights);
+    }
+
+    public int getFights() {
+        return fights;
+    }
+
+    /**
+     * Runs every matchup on the common fork/join pool and waits for the results.
+     * Never call this on the server's main thread.
+     */
+    public List<Result> run() {
+        return run(0, levels.length);
+    }
+
+    /**
+     * Runs the matchups of a single level only.
+     *
+     * @throws IllegalArgumentException if the level is not in simulation.levels.
+     */
+    public List<Result> run(int level) {
+        for (int l = 0; l < levels.length; l++) {
+            if (levels[l] == level) {
+                return run(l, l + 1);
+            }
+        }
+        throw new IllegalArgumentException("Level " + level + " is not in simulation.levels " + Arrays.toString(levels));
+    }
+
+    private List<Result> run(int fromLevel, int toLevel) {
+        List<Matchup> matchups = new ArrayList<>();
+        for (int l = fromLevel; l < toLevel; l++) {
+            for (int a = 0; a < classIds.length; a++) {
+                if (!pipeline.handles(damageTypes[a])) {
+                    continue;
+                }
+                for (int d = 0; d < classIds.length; d++) {
+                    // Stable index, so a matchup gets the same seeds whichever levels are run.
+                    matchups.add(new Matchup((l * classIds.length + a) * classIds.length + d, a, d, l));
+                }
+            }
+        }
+        Result[] results = new Result[matchups.size()];
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                List<MatchupTask> tasks = new ArrayList<>();
+                for (Matchup matchup : matchups) {
+                    tasks.add(new MatchupTask(matchup));
+                }
+                invokeAll(tasks);
+                for (int i = 0; i < tasks.size(); i++) {
+                    results[i] = tasks.get(i).join();
+                }
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Writes results as CSV to a new file in the given folder.
+     *
+     * @return the file written.
+     */
+    public static File write(List<Result> results, File folder) throws IOException {
+        if (!folder.exists() && !folder.mkdirs()) {
+            throw new IOException("Could not create " + folder);
+        }
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        File file = new File(folder, "simulation-" + stamp + ".csv");
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            writeCsv(results, out);
+        }
+        return file;
+    }
+
+    public static void writeCsv(List<Result> results, PrintWriter out) {
+        out.println("level,attacker,defender,type,fights,hits,mean_damage,p50_damage,p99_damage,crit_rate,"
+                + "mean_ttk_hits,p50_ttk_hits,p99_ttk_hits,mean_ttk_seconds,p50_ttk_seconds,p99_ttk_seconds");
+        for (Result result : results) {
+            out.println(result.toCsv());
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads the passives of every class in a classes.yml.
+     *
+     * @param root the root of classes.yml.
+     */
+    public static Map<String, List<StatModifier>> readClasses(ConfigurationSection root, Logger logger) {
+        Map<String, List<StatModifier>> classes = new LinkedHashMap<>();
+        ConfigurationSection section = root.getConfigurationSection("classes");
+        if (section == null) {
+            return classes;
+        }
+        for (String id : section.getKeys(false)) {
+            List<StatModifier> passives = new ArrayList<>();
+            ConfigurationSection passivesSection = section.getConfigurationSection(id + ".passives");
+            if (passivesSection != null) {
+                for (String attribute : passivesSection.getKeys(false)) {
+                    StatModifier modifier = StatModifier.parse(attribute, passivesSection.get(attribute));
+                    if (modifier == null) {
+                        logger.warning("Invalid passive for class " + id + ": " + attribute);
+                        continue;
+                    }
+                    passives.add(modifier);
+                }
+            }
+            classes.put(id.toLowerCase(), passives);
+        }
+        return classes;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: CombatSimulator <config.yml> [classes.yml] [fights]");
+            System.exit(1);
+        }
+        Logger logger = Logger.getLogger("SandCore");
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(new File(args[0]));
+        File classesFile = new File(args.length > 1 ? args[1] : new File(new File(args[0]).getAbsoluteFile().getParentFile(), "classes.yml").getPath());
+        Map<String, List<StatModifier>> classes = readClasses(YamlConfiguration.loadConfiguration(classesFile), logger);
+        if (classes.isEmpty()) {
+            System.err.println("No classes found in " + classesFile);
+            System.exit(1);
+        }
+
+        CombatSimulator simulator = new CombatSimulator(config, classes, logger);
+        if (args.length > 2) {
+            simulator.setFights(Integer.parseInt(args[2]));
+        }
+        long start = System.nanoTime();
+        List<Result> results = simulator.run();
+        writeCsv(results, new PrintWriter(System.out));
+        logger.info(String.format("Simulated %d matchups x %d fights in %.1fs.",
+                results.size(), simulator.getFights(), (System.nanoTime() - start) / 1e9));
+    }
+
+    private static DamageType parseType(String name, DamageType fallback, Logger logger) {
+        if (name == null) {
+            return fallback;
+        }
+        for (DamageType type : DamageType.values()) {
+            if (type.key().equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        logger.warning("Unknown damage type in simulation config: " + name);
+        return fallback;
+    }
+
+    private static final class Matchup {
+        final int index;
+        final int attacker;
+        final int defender;
+        final int level;
+
+        Matchup(int index, int attacker, int defender, int level) {
+            this.index = index;
+            this.attacker = attacker;
+            this.defender = defender;
+            this.level = level;
+        }
+    }
+
+    private final class MatchupTask extends RecursiveTask<Result> {
+        private final Matchup matchup;
+
+        MatchupTask(Matchup matchup) {
+            this.matchup = matchup;
+        }
+
+        @Override
+        protected Result compute() {
+            Samples samples = new Fights(matchup, 0, fights).compute();
+            // Summarized here so only the result, not every sample, outlives the task.
+            return summarize(matchup, samples);
+        }
+    }
+
+    private final class Fights extends RecursiveTask<Samples> {
+        private final Matchup matchup;
+        private final int from;
+        private final int to;
+
+        Fights(Matchup matchup, int from, int to) {
+            this.matchup = matchup;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Samples compute() {
+            if (to - from > THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                Fights left = new Fights(matchup, from, mid);
+                left.fork();
+                Samples right = new Fights(matchup, mid, to).compute();
+                Samples merged = left.join();
+                merged.addAll(right);
+                return merged;
+            }
+
+            double[] attacker = profiles[matchup.attacker][matchup.level];
+            double[] defender = profiles[matchup.defender][matchup.level];
+            DamageType type = damageTypes[matchup.attacker];
+            double health = healthSlot >= 0 ? defender[healthSlot] : 0.0;
+            CritRoller.Session crit = new CritRoller.Session(critMode, mix(seed, matchup.index, from));
+            HitResult hit = new HitResult();
+            Samples samples = new Samples(to - from);
+
+            for (int fight = from; fight < to; fight++) {
+                double dealt = 0.0;
+                int hits = 0;
+                do {
+                    pipeline.hit(type, attacker, defender, crit, hit);
+                    samples.addHit(hit.getDamage(), hit.isCritical());
+                    dealt += hit.getDamage();
+                    hits++;
+                } while (dealt < health && hits < MAX_HITS);
+                if (health > 0.0 && dealt >= health) {
+                    samples.addKill(hits);
+                }
+            }
+            return samples;
+        }
+    }
+
+    private Result summarize(Matchup matchup, Samples samples) {
+        double[] damage = Arrays.copyOf(samples.damage, samples.hits);
+        Arrays.sort(damage);
+        int[] kills = Arrays.copyOf(samples.killHits, samples.kills);
+        Arrays.sort(kills);
+        double damageSum = 0.0;
+        for (double value : damage) {
+            damageSum += value;
+        }
+        double killSum = 0.0;
+        for (int value : kills) {
+            killSum += value;
+        }
+        return new Result(levels[matchup.level], classIds[matchup.attacker], classIds[matchup.defender],
+                damageTypes[matchup.attacker], fights, samples.hits,
+                damage.length > 0 ? damageSum / damage.length : 0.0,
+                percentile(damage, 0.50), percentile(damage, 0.99),
+                samples.hits > 0 ? (double) samples.crits / samples.hits : 0.0,
+                kills.length > 0 ? killSum / kills.length : Double.NaN,
+                kills.length > 0 ? kills[index(kills.length, 0.50)] : Double.NaN,
+                kills.length > 0 ? kills[index(kills.length, 0.99)] : Double.NaN,
+                attackInterval);
+    }
+
+    private static double percentile(double[] sorted, double q) {
+        return sorted.length > 0 ? sorted[index(sorted.length, q)] : 0.0;
+    }
+
+    private static int index(int length, double q) {
+        return Math.max(0, Math.min(length - 1, (int) Math.ceil(q * length) - 1));
+    }
+
+    // SplitMix64 finalizer over the base seed and the task's position.
+    private static long mix(long seed, int matchup, int from) {
+        long z = seed + 0x9E3779B97F4A7C15L * (((long) matchup << 32) | from);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Samples {
+        double[] damage;
+        int hits;
+        int crits;
+        int[] killHits;
+        int kills;
+
+        Samples(int fights) {
+            damage = new double[Math.max(16, fights * 4)];
+            killHits = new int[Math.max(1, fights)];
+        }
+
+        void addHit(double value, boolean critical) {
+            if (hits == damage.length) {
+                damage = Arrays.copyOf(damage, hits << 1);
+            }
+            damage[hits++] = value;
+            if (critical) {
+                crits++;
+            }
+        }
+
+        void addKill(int hitCount) {
+            if (kills == killHits.length) {
+                killHits = Arrays.copyOf(killHits, kills << 1);
+            }
+            killHits[kills++] = hitCount;
+        }
+
+        void addAll(Samples other) {
+            damage = Arrays.copyOf(damage, Math.max(damage.length, hits + other.hits));
+            System.arraycopy(other.damage, 0, damage, hits, other.hits);
+            hits += other.hits;
+            crits += other.crits;
+            killHits = Arrays.copyOf(killHits, Math.max(killHits.length, kills + other.kills));
+            System.arraycopy(other.killHits, 0, killHits, kills, other.kills);
+            kills += other.kills;
+        }
+    }
+
+    /**
+     * The outcome of one attacker/defender/level matchup.
+     */
+    public static final class Result {
+        private final int level;
+        private final String attacker;
+        private final String defender;
+        private final DamageType type;
+        private final int fights;
+        private final int hits;
+        private final double meanDamage;
+        private final double p50Damage;
+        private final double p99Damage;
+        private final double critRate;
+        private final double meanTtkHits;
+        private final double p50TtkHits;
+        private final double p99TtkHits;
+        private final double attackInterval;
+
+        Result(int level, String attacker, String defender, DamageType type, int fights, int hits,
+               double meanDamage, double p50Damage, double p99Damage, double critRate,
+               double meanTtkHits, double p50TtkHits, double p99TtkHits, double attackInterval) {
+            this.level = level;
+            this.attacker = attacker;
+            this.defender = defender;
+            this.type = type;
+            this.fights = fights;
+            this.hits = hits;
+            this.meanDamage = meanDamage;
+            this.p50Damage = p50Damage;
+            this.p99Damage = p99Damage;
+            this.critRate = critRate;
+            this.meanTtkHits = meanTtkHits;
+            this.p50TtkHits = p50TtkHits;
+            this.p99TtkHits = p99TtkHits;
+            this.attackInterval = attackInterval;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public String getAttacker() {
+            return attacker;
+        }
+
+        public String getDefender() {
+            return defender;
+        }
+
+        public double getMeanDamage() {
+            return meanDamage;
+        }
+
+        public double getP50Damage() {
+            return p50Damage;
+        }
+
+        public double getP99Damage() {
+            return p99Damage;
+        }
+
+        public double getCritRate() {
+            return critRate;
+        }
+
+        /**
+         * Median hits to kill, or NaN if no fight ended in a kill.
+         */
+        public double getP50TtkHits() {
+            return p50TtkHits;
+        }
+
+        /**
+         * Seconds until the killing hit; the first hit lands at 0.
+         */
+        public double getP50TtkSeconds() {
+            return seconds(p50TtkHits);
+        }
+
+        public double getP99TtkSeconds() {
+            return seconds(p99TtkHits);
+        }
+
+        private double seconds(double hitCount) {
+            return (hitCount - 1) * attackInterval;
+        }
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%d,%s,%s,%s,%d,%d,%.3f,%.3f,%.3f,%.4f,%.2f,%.0f,%.0f,%.3f,%.3f,%.3f",
+                    level, attacker, defender, type.key(), fights, hits, meanDamage, p50Damage, p99Damage, critRate,
+                    meanTtkHits, p50TtkHits, p99TtkHits, seconds(meanTtkHits), seconds(p50TtkHits), seconds(p99TtkHits));
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.sandcore.damage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * CombatTelemetry records damage dealt, damage taken, crits and mitigation per
+ * player and per class over a sliding window, for balancing.
+ *
+ * Every series is a ring of one-second buckets of {@link LongAdder}s, so
+ * recording a hit is a map lookup and a few uncontended adds, from any thread.
+ * A bucket is reset lazily by the first hit that lands in it after it expired.
+ * Damage is stored in hundredths to keep the adders integral.
+ */
+public class CombatTelemetry {
+    private static final long BUCKET_NANOS = 1_000_000_000L;
+    private static final double SCALE = 100.0;
+
+    private final Map<UUID, Series> players = new ConcurrentHashMap<>();
+    private final Map<String, Series> classes = new ConcurrentHashMap<>();
+    private volatile int windowSeconds;
+
+    public CombatTelemetry(int windowSeconds) {
+        this.windowSeconds = Math.max(1, windowSeconds);
+    }
+
+    /**
+     * Changes the window length. Recorded history is discarded.
+     */
+    public void setWindowSeconds(int windowSeconds) {
+        this.windowSeconds = Math.max(1, windowSeconds);
+        players.clear();
+        classes.clear();
+    }
+
+    public int getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    /**
+     * Records damage dealt by a player.
+     *
+     * @param raw damage before mitigation.
+     * @param dealt damage after mitigation.
+     * @param hits the number of hits (victims, for a batch).
+     * @param crits how many of those hits were critical.
+     */
+    public void recordDealt(UUID attacker, String classId, double raw, double dealt, int hits, int crits) {
+        long epoch = epoch();
+        players.computeIfAbsent(attacker, uuid -> new Series(windowSeconds)).bucket(epoch).dealt(raw, dealt, hits, crits);
+        classes.computeIfAbsent(classId, id -> new Series(windowSeconds)).bucket(epoch).dealt(raw, dealt, hits, crits);
+    }
+
+    /**
+     * Records damage taken by a player.
+     *
+     * @param raw damage before the player's defense.
+     * @param taken damage after mitigation.
+     */
+    public void recordTaken(UUID victim, String classId, double raw, double taken) {
+        long epoch = epoch();
+        players.computeIfAbsent(victim, uuid -> new Series(windowSeconds)).bucket(epoch).taken(raw, taken);
+        classes.computeIfAbsent(classId, id -> new Series(windowSeconds)).bucket(epoch).taken(raw, taken);
+    }
+
+    public Summary getPlayerSummary(UUID player) {
+        Series series = players.get(player);
+        return series != null ? series.summarize(epoch()) : Summary.EMPTY;
+    }
+
+    public Summary getClassSummary(String classId) {
+        Series series = classes.get(classId);
+        return series != null ? series.summarize(epoch()) : Summary.EMPTY;
+    }
+
+    public Map<String, Summary> getClassSummaries() {
+        long epoch = epoch();
+        Map<String, Summary> summaries = new TreeMap<>();
+        classes.forEach((id, series) -> summaries.put(id, series.summarize(epoch)));
+        return summaries;
+    }
+
+    public Map<UUID, Summary> getPlayerSummaries() {
+        long epoch = epoch();
+        Map<UUID, Summary> summaries = new HashMap<>();
+        players.forEach((uuid, series) -> summaries.put(uuid, series.summarize(epoch)));
+        return summaries;
+    }
+
+    public void forget(UUID player) {
+        players.remove(player);
+    }
+
+    /**
+     * Writes the current window of every class and player to a CSV file.
+     *
+     * @param names resolves player UUIDs to display names; may return null.
+     * @return the file written.
+     */
+    public File dump(File folder, Function<UUID, String> names) throws IOException {
+        if (!folder.exists() && !folder.mkdirs()) {
+            throw new IOException("Could not create " + folder);
+        }
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        File file = new File(folder, "combatstats-" + stamp + ".csv");
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            out.println("scope,id,window_seconds,dps,hits,crit_rate,damage_dealt,damage_taken,mitigation");
+            for (Map.Entry<String, Summary> entry : getClassSummaries().entrySet()) {
+                out.println(entry.getValue().toCsv("class", entry.getKey()));
+            }
+            for (Map.Entry<UUID, Summary> entry : getPlayerSummaries().entrySet()) {
+                String name = names.apply(entry.getKey());
+                out.println(entry.getValue().toCsv("player", name != null ? name : entry.getKey().toString()));
+            }
+        }
+        return file;
+    }
+
+    private static long epoch() {
+        return System.nanoTime() / BUCKET_NANOS;
+    }
+
+    /**
+     * Totals over the window, as of the moment they were summarized.
+     */
+    public static final class Summary {
+        static final Summary EMPTY = new Summary(1, 0, 0, 0, 0, 0, 0);
+
+        private final int windowSeconds;
+        private final long hits;
+        private final long crits;
+        private final double dealt;
+        private final double dealtRaw;
+        private final double taken;
+        private final double takenRaw;
+
+        Summary(int windowSeconds, long hits, long crits, double dealt, double dealtRaw, double taken, double takenRaw) {
+            this.windowSeconds = windowSeconds;
+            this.hits = hits;
+            this.crits = crits;
+            this.dealt = dealt;
+            this.dealtRaw = dealtRaw;
+            this.taken = taken;
+            this.takenRaw = takenRaw;
+        }
+
+        public double getDps() {
+            return dealt / windowSeconds;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public double getCritRate() {
+            return hits > 0 ? (double) crits / hits : 0.0;
+        }
+
+        public double getDamageDealt() {
+            return dealt;
+        }
+
+        public double getDamageTaken() {
+            return taken;
+        }
+
+        /**
+         * Fraction of incoming damage removed by defense.
+         */
+        public double getMitigation() {
+            return takenRaw > 0 ? 1.0 - taken / takenRaw : 0.0;
+        }
+
+        /**
+         * Fraction of outgoing damage removed by victims' defense.
+         */
+        public double getDealtMitigation() {
+            return dealtRaw > 0 ? 1.0 - dealt / dealtRaw : 0.0;
+        }
+
+        String toCsv(String scope, String id) {
+            return String.format(Locale.ROOT, "%s,%s,%d,%.2f,%d,%.4f,%.2f,%.2f,%.4f",
+                    scope, id, windowSeconds, getDps(), hits, getCritRate(), dealt, taken, getMitigation());
+        }
+    }
+
+    private static final class Series {
+        private final Bucket[] buckets;
+
+        Series(int size) {
+            buckets = new Bucket[size];
+            for (int i = 0; i < size; i++) {
+                buckets[i] = new Bucket();
+            }
+        }
+
+        Bucket bucket(long epoch) {
+            Bucket bucket = buckets[(int) Math.floorMod(epoch, (long) buckets.length)];
+            long current = bucket.epoch.get();
+            if (current != epoch && bucket.epoch.compareAndSet(current, epoch)) {
+                bucket.reset();
+            }
+            return bucket;
+        }
+
+        Summary summarize(long epoch) {
+            long hits = 0, crits = 0, dealt = 0, dealtRaw = 0, taken = 0, takenRaw = 0;
+            for (Bucket bucket : buckets) {
+                long age = epoch - bucket.epoch.get();
+                if (age < 0 || age >= buckets.length) {
+                    continue; // never used, or expired and not yet reset
+                }
+                hits += bucket.hits.sum();
+                crits += bucket.crits.sum();
+                dealt += bucket.dealt.sum();
+                dealtRaw += bucket.dealtRaw.sum();
+                taken += bucket.taken.sum();
+                takenRaw += bucket.takenRaw.sum();
+            }
+            return new Summary(buckets.length, hits, crits, dealt / SCALE, dealtRaw / SCALE, taken / SCALE, takenRaw / SCALE);
+        }
+    }
+
+    private static final class Bucket {
+        final AtomicLong epoch = new AtomicLong(Long.MIN_VALUE);
+        final LongAdder hits = new LongAdder();
+        final LongAdder crits = new LongAdder();
+        final LongAdder dealt = new LongAdder();
+        final LongAdder dealtRaw = new LongAdder();
+        final LongAdder taken = new LongAdder();
+        final LongAdder takenRaw = new LongAdder();
+
+        void dealt(double raw, double amount, int hitCount, int critCount) {
+            hits.add(hitCount);
+            crits.add(critCount);
+            dealt.add(Math.round(amount * SCALE));
+            dealtRaw.add(Math.round(raw * SCALE));
+        }
+
+        void taken(double raw, double amount) {
+            taken.add(Math.round(amount * SCALE));
+            takenRaw.add(Math.round(raw * SCALE));
+        }
+
+        void reset() {
+            hits.reset();
+            crits.reset();
+            dealt.reset();
+            dealtRaw.reset();
+            taken.reset();
+            takenRaw.reset();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.sandcore.damage;
+
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * CritRoller decides critical hits with one random generator per player session
+ * instead of the shared {@link Math#random()}.
+ *
+ * Every session is seeded once and the seed is kept, so a recorded sequence of
+ * hits can be replayed exactly. In {@link Mode#PRD} mode the chance starts low
+ * and grows with each non-critical hit (P(N) = C * N), which gives the same
+ * average rate as the nominal chance with far fewer streaks and droughts.
+ *
+ * Configuration (config.yml):
+ * - damage.crit.mode: random or prd (default: random)
+ * - damage.crit.seed: fixed seed for every session, for testing (default: random per session)
+ */
+public final class CritRoller {
+
+    public enum Mode {
+        RANDOM, PRD
+    }
+
+    // PRD constant C for nominal chances 0%, 1%, ..., 100%; interpolated in between.
+    private static final double[] PRD_CONSTANTS = new double[101];
+
+    static {
+        for (int percent = 0; percent <= 100; percent++) {
+            PRD_CONSTANTS[percent] = prdConstant(percent / 100.0);
+        }
+    }
+
+    private final Map<UUID, Session> sessions = new HashMap<>();
+    private final SecureRandom seeds = new SecureRandom();
+    private Mode mode = Mode.RANDOM;
+    private Long fixedSeed;
+
+    /**
+     * (Re)reads the mode and seed from the "damage.crit" section. Running sessions
+     * keep their seed and switch to the new mode.
+     */
+    public void configure(ConfigurationSection crit) {
+        Mode newMode = Mode.RANDOM;
+        Long newSeed = null;
+        if (crit != null) {
+            if ("prd".equalsIgnoreCase(crit.getString("mode", "random"))) {
+                newMode = Mode.PRD;
+            }
+            if (crit.contains("seed")) {
+                newSeed = crit.getLong("seed");
+            }
+        }
+        this.mode = newMode;
+        this.fixedSeed = newSeed;
+        for (Session session : sessions.values()) {
+            session.mode = newMode;
+        }
+    }
+
+    /**
+     * Returns the player's session, starting one on the first hit.
+     */
+    public Session session(UUID player) {
+        Session session = sessions.get(player);
+        if (session == null) {
+            long seed = fixedSeed != null ? fixedSeed : seeds.nextLong();
+            session = new Session(mode, seed);
+            sessions.put(player, session);
+        }
+        return session;
+    }
+
+    /**
+     * Ends the player's session, e.g. on quit. The next hit starts a new seed.
+     */
+    public void end(UUID player) {
+        sessions.remove(player);
+    }
+
+    /**
+     * Returns the seed of the player's running session, or null if there is none.
+     */
+    public Long getSeed(UUID player) {
+        Session session = sessions.get(player);
+        return session != null ? session.seed : null;
+    }
+
+    /**
+     * One player's (or one simulated attacker's) crit state. Not thread-safe;
+     * every session belongs to a single thread.
+     */
+    public static final class Session {
+        private final long seed;
+        private final SplittableRandom random;
+        private Mode mode;
+        // Hits since the last critical one, counting the upcoming hit (PRD only).
+        private int attempt = 1;
+
+        public Session(Mode mode, long seed) {
+            this.mode = mode;
+            this.seed = seed;
+            this.random = new SplittableRandom(seed);
+        }
+
+        /**
+         * Rolls one hit.
+         *
+         * @param chance the nominal critical chance in percent.
+         */
+        public boolean roll(double chance) {
+            double p = chance / 100.0;
+            if (p <= 0.0) {
+                return false;
+            }
+            if (p >= 1.0) {
+                return true;
+            }
+            if (mode == Mode.RANDOM) {
+                return random.nextDouble() < p;
+            }
+            if (random.nextDouble() < prdConstantFor(p) * attempt) {
+                attempt = 1;
+                return true;
+            }
+            attempt++;
+            return false;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public Mode getMode() {
+            return mode;
+        }
+    }
+
+    private static double prdConstantFor(double p) {
+        double index = p * 100.0;
+        int lower = (int) index;
+        if (lower >= 100) {
+            return PRD_CONSTANTS[100];
+        }
+        double t = index - lower;
+        return PRD_CONSTANTS[lower] + (PRD_CONSTANTS[lower + 1] - PRD_CONSTANTS[lower]) * t;
+    }
+
+    /**
+     * Finds C such that rolling with P(N) = C * N crits at an average rate of p,
+     * by bisection over the closed form of the expected number of hits per crit.
+     * Package-private for tests.
+     */
+    static double prdConstant(double p) {
+        if (p <= 0.0) {
+            return 0.0;
+        }
+        if (p >= 1.0) {
+            return 1.0;
+        }
+        double low = 0.0;
+        double high = p;
+        for (int i = 0; i < 50; i++) {
+            double mid = (low + high) / 2.0;
+            if (averageRate(mid) > p) {
+                high = mid;
+            } else {
+                low = mid;
+            }
+        }
+        return (low + high) / 2.0;
+    }
+
+    private static double averageRate(double c) {
+        double critBefore = 0.0;
+        double expectedHits = 0.0;
+        int maxAttempts = (int) Math.ceil(1.0 / c);
+        for (int n = 1; n <= maxAttempts; n++) {
+            double critOnN = Math.min(1.0, n * c) * (1.0 - critBefore);
+            critBefore += critOnN;
+            expectedHits += n * critOnN;
+        }
+        return 1.0 / expectedHits;
+    }
+}
@@ -1,98 +1,321 @@
 package com.sandcore.damage;
 
+import java.util.Collection;
+
+import org.bukkit.Bukkit;
+
+import org.bukkit.Location;
 import org.bukkit.entity.*;
 import org.bukkit.event.*;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.configuration.ConfigurationSection;
 import com.sandcore.SandCore;
+import com.sandcore.hud.CombatEffectsService;
+import com.sandcore.hud.DamageIndicatorService;
+import com.sandcore.stat.AttributeRegistry;
 import com.sandcore.stat.StatManager;
-import net.objecthunter.exp4j.ExpressionBuilder;
+import com.sandcore.stat.formula.Formula;
 import org.bukkit.Particle;
 import org.bukkit.Sound;
 
 public class DamageEngine implements Listener {
     private final SandCore plugin;
     private final StatManager statManager;
+    // Rebuilt on every config load; hits only ever read the current instance.
+    private DamagePipeline pipeline;
+    // Stat values used as the victim side for non-player victims.
+    private final MobProfileCache mobProfiles;
+    // Reused for every hit; damage is only dealt on the main thread.
+    private final HitResult hit = new HitResult();
+    private final PreparedAttack prepared = new PreparedAttack();
+    private final Location victimLocation = new Location(null, 0, 0, 0);
+    private final CritRoller critRoller = new CritRoller();
+    // Null while telemetry.enabled is false.
+    private CombatTelemetry telemetry;
+    // Shooter stats captured at launch, for projectile impacts.
+    private final ProjectileTracker projectiles;
+    // True while the engine deals damage itself, so the resulting event is not resolved again.
+    private boolean dealing;
 
     public DamageEngine(SandCore plugin) {
         this.plugin = plugin;
         this.statManager = plugin.getStatManager();
+        this.mobProfiles = new MobProfileCache(plugin);
+        this.projectiles = new ProjectileTracker(plugin, statManager, critRoller);
+        loadFormulas();
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
     }
 
+    /**
+     * Rebuilds the damage pipeline from damage.* against the stat registry.
+     * Invalid formulas are reported here, once, instead of failing on every hit.
+     */
+    public void loadFormulas() {
+        AttributeRegistry registry = statManager.getRegistry();
+        ConfigurationSection damage = plugin.getConfig().getConfigurationSection("damage");
+        DamagePipeline newPipeline = new DamagePipeline(damage, registry, plugin.getLogger());
+
+        mobProfiles.load(damage, registry);
+        this.pipeline = newPipeline;
+        critRoller.configure(damage != null ? damage.getConfigurationSection("crit") : null);
+        projectiles.loadConfiguration(damage != null ? damage.getStringList("projectiles") : null, plugin.getLogger());
+
+        if (!plugin.getConfig().getBoolean("telemetry.enabled", true)) {
+            telemetry = null;
+        } else {
+            int window = plugin.getConfig().getInt("telemetry.window_seconds", 60);
+            if (telemetry == null) {
+                telemetry = new CombatTelemetry(window);
+            } else if (telemetry.getWindowSeconds() != window) {
+                telemetry.setWindowSeconds(window);
+            }
+        }
+    }
+
+    /**
+     * Returns the compiled formula at the given path under damage.*
+     * (e.g. "defense.physical"), or null if it is missing or invalid.
+     */
+    public Formula getFormula(String path) {
+        return pipeline.getFormula(path);
+    }
+
+    public DamagePipeline getPipeline() {
+        return pipeline;
+    }
+
+    public MobProfileCache getMobProfiles() {
+        return mobProfiles;
+    }
+
+    /**
+     * Returns the combat telemetry recorder, or null if telemetry is disabled.
+     */
+    public CombatTelemetry getTelemetry() {
+        return telemetry;
+    }
+
+    public CritRoller getCritRoller() {
+        return critRoller;
+    }
+
+    public ProjectileTracker getProjectiles() {
+        return projectiles;
+    }
+
+    /**
+     * Whether the damage event being handled was dealt by the engine itself (e.g. a
+     * batch or projectile hit) rather than by an attack.
+     */
+    public boolean isDealingDamage() {
+        return dealing;
+    }
+
     @EventHandler(priority = EventPriority.HIGH)
     public void onDamage(EntityDamageByEntityEvent event) {
+        if (dealing) {
+            // Already resolved by the pipeline, including the victim's defense.
+            clearVanillaMitigation(event);
+            return;
+        }
         if (event.getDamager() instanceof Player) {
             handlePlayerAttack((Player) event.getDamager(), event.getEntity(), event);
+        } else if (event.getDamager() instanceof Projectile) {
+            ProjectileTracker.Launch launch = projectiles.get((Projectile) event.getDamager());
+            if (launch != null) {
+                handleProjectileHit((Projectile) event.getDamager(), launch, event.getEntity(), event);
+            }
         }
     }
 
     private void handlePlayerAttack(Player attacker, Entity victim, EntityDamageByEntityEvent event) {
-        event.setCancelled(true);
-        
-        StatManager.PlayerStats stats = statManager.getPlayerStats(attacker);
-        double damage = calculateDamage(stats, "physical");
-        boolean isCrit = isCritical(stats);
-        
-        if (isCrit) {
-            damage *= stats.getAttribute("critical_damage");
+        if (!pipeline.handles(DamageType.PHYSICAL) || !(victim instanceof Damageable)) {
+            return;
+        }
+
+        double[] attackerValues = statManager.getPlayerStats(attacker).getValues();
+        pipeline.hit(DamageType.PHYSICAL, attackerValues, valuesOf(victim), critRoller.session(attacker.getUniqueId()), hit);
+        if (hit.isCritical()) {
             showCriticalEffect(attacker);
         }
-        
-        applyDamage(attacker, victim, damage, DamageType.PHYSICAL);
+
+        // Keep the vanilla event so knockback, kill credit and other plugins see the attacker.
+        event.setDamage(hit.getDamage());
+        clearVanillaMitigation(event);
+        showDamageIndicator(victim, hit.getDamage(), hit.isCritical());
+        if (telemetry != null) {
+            telemetry.recordDealt(attacker.getUniqueId(), classOf(attacker), hit.getRaw(), hit.getDamage(), 1, hit.isCritical() ? 1 : 0);
+            recordTaken(victim, hit);
+        }
     }
 
-    private double calculateDamage(StatManager.PlayerStats stats, String damageType) {
-        String formula = plugin.getConfig().getString("damage.formulas." + damageType + ".base");
-        return new ExpressionBuilder(formula)
-            .variables(stats.getAttributeNames())
-            .build()
-            .setVariables(stats.getAttributesMap())
-            .evaluate();
+    /**
+     * Resolves a projectile impact from the stats captured when it was launched,
+     * so neither the shooter's current gear nor their presence matters.
+     */
+    private void handleProjectileHit(Projectile projectile, ProjectileTracker.Launch launch, Entity victim, EntityDamageByEntityEvent event) {
+        if (!pipeline.handles(DamageType.PHYSICAL) || !(victim instanceof Damageable)
+                || victim.getUniqueId().equals(launch.shooter)
+                // Stats from before a reload no longer line up with the registry; let vanilla damage apply.
+                || launch.registry != statManager.getRegistry()) {
+            return;
+        }
+        event.setCancelled(true);
+        pipeline.prepare(DamageType.PHYSICAL, launch.values, launch.coefficient, prepared);
+        pipeline.resolve(prepared, valuesOf(victim), launch.crit, hit);
+        Player shooter = Bukkit.getPlayer(launch.shooter);
+        if (hit.isCritical() && shooter != null) {
+            showCriticalEffect(shooter);
+        }
+
+        dealDamage((Damageable) victim, hit.getDamage(), shooter != null ? shooter : projectile);
+        showDamageIndicator(victim, hit.getDamage(), hit.isCritical());
+        if (telemetry != null) {
+            telemetry.recordDealt(launch.shooter, launch.classId, hit.getRaw(), hit.getDamage(), 1, hit.isCritical() ? 1 : 0);
+            recordTaken(victim, hit);
+        }
+        // A cancelled hit would bounce the arrow back into play; spend it instead.
+        if (projectile instanceof AbstractArrow && !(projectile instanceof Trident)
+                && ((AbstractArrow) projectile).getPierceLevel() == 0) {
+            projectile.remove();
+        }
     }
 
-    private boolean isCritical(StatManager.PlayerStats stats) {
-        double chance = stats.getAttribute("critical_chance") / 100.0;
-        return Math.random() < chance;
+    /**
+     * Deals damage from one attack (e.g. an AoE skill) to many victims at once.
+     *
+     * The attacker's stats, base formula, crit multiplier and penetration are
+     * evaluated once; each victim then only costs a crit roll, its defense formula
+     * and the damage call. All hits are shown as one aggregated indicator and
+     * recorded as one telemetry entry.
+     *
+     * @param coefficient multiplier on the base damage, e.g. the skill's damage coefficient.
+     * @return the total damage dealt.
+     */
+    public double applyBatchDamage(Player attacker, Collection<? extends Entity> victims, DamageType type, double coefficient) {
+        if (!pipeline.handles(type) || victims.isEmpty()) {
+            return 0.0;
+        }
+        pipeline.prepare(type, statManager.getPlayerStats(attacker).getValues(), coefficient, prepared);
+        CritRoller.Session crit = critRoller.session(attacker.getUniqueId());
+
+        double total = 0.0;
+        double totalRaw = 0.0;
+        int crits = 0;
+        int targets = 0;
+        boolean anyCritical = false;
+        double x = 0.0, y = 0.0, z = 0.0;
+        for (Entity victim : victims) {
+            if (victim == attacker || !(victim instanceof Damageable) || victim.isDead()) {
+                continue;
+            }
+            pipeline.resolve(prepared, valuesOf(victim), crit, hit);
+            dealDamage((Damageable) victim, hit.getDamage(), attacker);
+            total += hit.getDamage();
+            totalRaw += hit.getRaw();
+            if (hit.isCritical()) {
+                crits++;
+                anyCritical = true;
+            }
+            if (telemetry != null) {
+                recordTaken(victim, hit);
+            }
+            targets++;
+            victim.getLocation(victimLocation);
+            x += victimLocation.getX();
+            y += victimLocation.getY() + victim.getHeight();
+            z += victimLocation.getZ();
+        }
+        if (targets == 0) {
+            return 0.0;
+        }
+        if (anyCritical) {
+            showCriticalEffect(attacker);
+        }
+        if (telemetry != null) {
+            telemetry.recordDealt(attacker.getUniqueId(), classOf(attacker), totalRaw, total, targets, crits);
+        }
+        DamageIndicatorService indicators = plugin.getDamageIndicatorService();
+        if (indicators != null) {
+            Location center = new Location(attacker.getWorld(), x / targets, y / targets, z / targets);
+            indicators.recordAggregate(center, total, targets, anyCritical);
+        }
+        return total;
     }
 
-    private void applyDamage(Entity damager, Entity victim, double damage, DamageType type) {
-        // Defense calculations
-        double defense = getDefense(victim, type);
-        double penetration = getPenetration(damager, type);
-        double mitigated = damage * (1 - Math.max(0, defense - penetration));
-        
-        if (victim instanceof Damageable) {
-            ((Damageable) victim).damage(mitigated);
-            showDamageIndicator(victim, mitigated);
+    /**
+     * Deals already resolved damage with the attacker as its source, so the victim
+     * credits the kill and takes knockback; the event it fires is not resolved
+     * again and vanilla mitigation is cleared from it.
+     */
+    private void dealDamage(Damageable victim, double amount, Entity source) {
+        dealing = true;
+        try {
+            victim.damage(amount, source);
+        } finally {
+            dealing = false;
         }
     }
 
-    private double getDefense(Entity entity, DamageType type) {
-        if (entity instanceof Player) {
-            return statManager.getPlayerStats((Player) entity).getAttribute(type + "_defense");
+    /**
+     * Zeroes vanilla armor, resistance, absorption and the like, so pipeline damage
+     * (which already applied the victim's defense) is not mitigated twice.
+     */
+    @SuppressWarnings("deprecation")
+    private static void clearVanillaMitigation(EntityDamageEvent event) {
+        for (EntityDamageEvent.DamageModifier modifier : EntityDamageEvent.DamageModifier.values()) {
+            if (modifier != EntityDamageEvent.DamageModifier.BASE && event.isApplicable(modifier)) {
+                event.setDamage(modifier, 0);
+            }
+        }
+    }
+
+    private void recordTaken(Entity victim, HitResult result) {
+        if (victim instanceof Player) {
+            telemetry.recordTaken(victim.getUniqueId(), classOf((Player) victim), result.getRaw(), result.getDamage());
         }
-        return plugin.getConfig().getDouble("damage.defense." + type + "_mob_base", 10.0);
     }
 
-    private double getPenetration(Entity damager, DamageType type) {
-        if (damager instanceof Player) {
-            return statManager.getPlayerStats((Player) damager).getAttribute(type + "_pen");
+    private String classOf(Player player) {
+        return plugin.getClassManager().getPlayerClass(player.getUniqueId());
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        critRoller.end(event.getPlayer().getUniqueId());
+        if (telemetry != null) {
+            telemetry.forget(event.getPlayer().getUniqueId());
         }
-        return 0.0;
     }
 
-    private enum DamageType {
-        PHYSICAL, MAGICAL
+    /**
+     * Returns the stat values a victim defends with: a player's own stats, or the
+     * entity's cached mob profile for anything else.
+     */
+    private double[] valuesOf(Entity entity) {
+        if (entity instanceof Player) {
+            return statManager.getPlayerStats((Player) entity).getValues();
+        }
+        return mobProfiles.profileOf(entity);
     }
 
     private void showCriticalEffect(Player player) {
+        CombatEffectsService effects = plugin.getCombatEffectsService();
+        if (effects != null) {
+            effects.critical(player);
+            return;
+        }
         player.getWorld().spawnParticle(Particle.CRIT, player.getLocation(), 30);
         player.playSound(player.getLocation(), Sound.ENTITY_PLAYER_LEVELUP, 1.0f, 1.5f);
     }
 
-    private void showDamageIndicator(Entity entity, double damage) {
-        if (entity instanceof Player) {
+    private void showDamageIndicator(Entity entity, double damage, boolean critical) {
+        DamageIndicatorService indicators = plugin.getDamageIndicatorService();
+        if (indicators != null) {
+            indicators.record(entity, damage, critical);
+        } else if (entity instanceof Player) {
             ((Player) entity).sendTitle("", "§c-" + String.format("%.1f", damage), 5, 15, 5);
         }
     }
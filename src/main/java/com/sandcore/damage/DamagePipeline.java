@@ -0,0 +1,193 @@
+package com.sandcore.damage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import com.sandcore.stat.AttributeRegistry;
+import com.sandcore.stat.formula.Formula;
+import com.sandcore.stat.formula.FormulaCompiler;
+import com.sandcore.stat.formula.FormulaException;
+
+/**
+ * DamagePipeline turns an attacker's and a victim's stat values into the damage
+ * of one hit. It is built once per config load from the damage section and then
+ * runs a fixed sequence of precompiled stages:
+ *
+ * <ol>
+ * <li>base: damage.formulas.&lt;type&gt;.base on the attacker</li>
+ * <li>crit: if the attacker's {@link CritRoller.Session} rolls a crit at critical_chance (in percent), multiply by
+ *     damage.formulas.&lt;type&gt;.critical, capped at damage.options.max_critical percent</li>
+ * <li>penetration: damage.penetration.&lt;type&gt; on the attacker, in percent of
+ *     the victim's defense that is ignored</li>
+ * <li>defense: damage.defense.&lt;type&gt; on the victim, the fraction of damage removed</li>
+ * <li>clamp: at least damage.options.min_damage</li>
+ * </ol>
+ *
+ * Stages only read the value arrays and write into a caller-supplied
+ * {@link HitResult}, so a hit performs no config lookups and no allocation.
+ * The pipeline does not depend on the plugin and can be built from any config.
+ */
+public final class DamagePipeline {
+    private final Formula[] base;
+    private final Formula[] critical;
+    private final Formula[] penetration;
+    private final Formula[] defense;
+    private final int criticalChanceSlot;
+    private final int criticalDamageSlot;
+    private final double minDamage;
+    private final double maxCritical;
+    // Every formula under damage.formulas, damage.defense and damage.penetration, keyed by its path relative to "damage".
+    private final Map<String, Formula> formulas;
+
+    /**
+     * Compiles the pipeline. Invalid formulas are reported once, here.
+     *
+     * @param damage the "damage" config section; may be null.
+     */
+    public DamagePipeline(ConfigurationSection damage, AttributeRegistry registry, Logger logger) {
+        FormulaCompiler compiler = new FormulaCompiler(registry);
+        Map<String, Formula> compiled = new HashMap<>();
+        if (damage != null) {
+            for (String path : damage.getKeys(true)) {
+                if (!damage.isString(path) || !isFormulaPath(path)) {
+                    continue;
+                }
+                try {
+                    compiled.put(path, compiler.compile(damage.getString(path)));
+                } catch (FormulaException e) {
+                    logger.severe("Invalid formula for damage." + path + ": " + e.getMessage());
+                }
+            }
+        }
+        this.formulas = compiled;
+
+        int types = DamageType.values().length;
+        this.base = new Formula[types];
+        this.critical = new Formula[types];
+        this.penetration = new Formula[types];
+        this.defense = new Formula[types];
+        for (DamageType type : DamageType.values()) {
+            int i = type.ordinal();
+            base[i] = compiled.get("formulas." + type.key() + ".base");
+            critical[i] = compiled.get("formulas." + type.key() + ".critical");
+            penetration[i] = compiled.get("penetration." + type.key());
+            defense[i] = compiled.get("defense." + type.key());
+            if (base[i] == null) {
+                logger.warning("No usable damage.formulas." + type.key() + ".base formula; "
+                        + type + " attacks will use vanilla damage.");
+            }
+        }
+        // -1 if not configured; reads as 0.
+        this.criticalChanceSlot = registry.slotOf("critical_chance");
+        this.criticalDamageSlot = registry.slotOf("critical_damage");
+        this.minDamage = damage != null ? damage.getDouble("options.min_damage", 0.0) : 0.0;
+        this.maxCritical = (damage != null ? damage.getDouble("options.max_critical", 300.0) : 300.0) / 100.0;
+    }
+
+    /**
+     * @return whether a base formula is configured for the type. Without one,
+     *         hits of that type should be left to vanilla.
+     */
+    public boolean handles(DamageType type) {
+        return base[type.ordinal()] != null;
+    }
+
+    /**
+     * Runs every stage for one hit.
+     *
+     * @param attacker the attacker's values by registry slot.
+     * @param victim the victim's values by registry slot.
+     * @param crit the attacker's crit session.
+     * @param out receives the result; its previous contents are discarded.
+     */
+    public void hit(DamageType type, double[] attacker, double[] victim, CritRoller.Session crit, HitResult out) {
+        int i = type.ordinal();
+        double chance = read(attacker, criticalChanceSlot);
+        double multiplier = chance > 0.0 ? criticalMultiplier(i, attacker) : 1.0;
+        resolve(i, baseDamage(i, attacker), chance, multiplier, ignoredDefense(i, attacker), victim, crit, out);
+    }
+
+    /**
+     * Evaluates the attacker-side stages (base damage, crit chance and multiplier,
+     * penetration) once, for an attack that hits several victims.
+     *
+     * @param coefficient multiplier on the base damage, e.g. a skill's damage coefficient.
+     */
+    public void prepare(DamageType type, double[] attacker, double coefficient, PreparedAttack out) {
+        int i = type.ordinal();
+        out.type = i;
+        out.damage = baseDamage(i, attacker) * coefficient;
+        out.criticalChance = read(attacker, criticalChanceSlot);
+        out.criticalMultiplier = out.criticalChance > 0.0 ? criticalMultiplier(i, attacker) : 1.0;
+        out.ignoredDefense = ignoredDefense(i, attacker);
+    }
+
+    /**
+     * Runs the victim-side stages (crit roll, defense, clamp) of a prepared attack.
+     */
+    public void resolve(PreparedAttack attack, double[] victim, CritRoller.Session crit, HitResult out) {
+        resolve(attack.type, attack.damage, attack.criticalChance, attack.criticalMultiplier,
+                attack.ignoredDefense, victim, crit, out);
+    }
+
+    private void resolve(int i, double damage, double chance, double multiplier, double ignored,
+                         double[] victim, CritRoller.Session crit, HitResult out) {
+        out.reset();
+        if (crit.roll(chance)) {
+            out.critical = true;
+            out.criticalMultiplier = multiplier;
+            damage *= multiplier;
+        }
+        out.raw = damage;
+
+        double reduction = defense[i] != null ? clamp(defense[i].evaluate(victim)) * (1.0 - ignored) : 0.0;
+        out.reduction = reduction;
+
+        out.damage = Math.max(minDamage, damage * (1.0 - reduction));
+    }
+
+    private double baseDamage(int i, double[] attacker) {
+        return base[i] != null ? finite(base[i].evaluate(attacker)) : 0.0;
+    }
+
+    private double criticalMultiplier(int i, double[] attacker) {
+        double multiplier = critical[i] != null
+                ? critical[i].evaluate(attacker)
+                : read(attacker, criticalDamageSlot) / 100.0;
+        return Math.min(finite(multiplier), maxCritical);
+    }
+
+    private double ignoredDefense(int i, double[] attacker) {
+        return penetration[i] != null ? clamp(penetration[i].evaluate(attacker) / 100.0) : 0.0;
+    }
+
+    /**
+     * Returns the compiled formula at the given path under damage.*
+     * (e.g. "defense.physical"), or null if it is missing or invalid.
+     */
+    public Formula getFormula(String path) {
+        return formulas.get(path);
+    }
+
+    private static boolean isFormulaPath(String path) {
+        return path.startsWith("formulas.") || path.startsWith("defense.") || path.startsWith("penetration.");
+    }
+
+    private static double read(double[] values, int slot) {
+        return slot >= 0 && slot < values.length ? values[slot] : 0.0;
+    }
+
+    private static double clamp(double fraction) {
+        if (!(fraction > 0.0)) {
+            return 0.0; // also maps NaN to 0
+        }
+        return Math.min(fraction, 1.0);
+    }
+
+    private static double finite(double value) {
+        return Double.isFinite(value) ? value : 0.0;
+    }
+}
@@ -0,0 +1,15 @@
+package com.sandcore.damage;
+
+/**
+ * The damage types configured under damage.formulas, damage.defense and
+ * damage.penetration. {@link #key()} is the lower-case config key.
+ */
+public enum DamageType {
+    PHYSICAL, MAGICAL;
+
+    private final String key = name().toLowerCase();
+
+    public String key() {
+        return key;
+    }
+}
@@ -0,0 +1,53 @@
+package com.sandcore.damage;
+
+/**
+ * The outcome of one hit, filled in by {@link DamagePipeline}. Instances are
+ * meant to be reused across hits, so the pipeline never allocates.
+ */
+public final class HitResult {
+    double raw;
+    boolean critical;
+    double criticalMultiplier;
+    double reduction;
+    double damage;
+
+    /**
+     * Damage after the base formula and critical multiplier, before defense.
+     */
+    public double getRaw() {
+        return raw;
+    }
+
+    public boolean isCritical() {
+        return critical;
+    }
+
+    /**
+     * The multiplier that was applied if the hit was critical, otherwise 1.
+     */
+    public double getCriticalMultiplier() {
+        return criticalMultiplier;
+    }
+
+    /**
+     * The fraction of damage removed by the victim's defense, after penetration.
+     */
+    public double getReduction() {
+        return reduction;
+    }
+
+    /**
+     * The final damage to deal.
+     */
+    public double getDamage() {
+        return damage;
+    }
+
+    void reset() {
+        raw = 0.0;
+        critical = false;
+        criticalMultiplier = 1.0;
+        reduction = 0.0;
+        damage = 0.0;
+    }
+}
@@ -0,0 +1,267 @@
+package com.sandcore.damage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.entity.EntityDeathEvent;
+
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import com.sandcore.SandCore;
+import com.sandcore.levels.MobLevelService;
+import com.sandcore.stat.AttributeRegistry;
+import com.sandcore.util.Int2ObjectTable;
+
+/**
+ * MobProfileCache holds the stats non-player entities defend (and attack) with.
+ *
+ * A profile is a stat value array indexed by registry slot, so the damage
+ * pipeline reads it exactly like a player's values. Profiles are resolved once
+ * per {@link EntityType} and level and once per MythicMobs type and level, then
+ * attached to each entity by id when it spawns (or on its first hit, for entities loaded from
+ * disk). Hits only do an int-keyed lookup. Entries are dropped when the entity
+ * dies or leaves the world.
+ *
+ * Levels start at 1 for both vanilla mobs ({@link MobLevelService}) and
+ * MythicMobs. Per-level values are added once per level above 1, so a level 1
+ * mob has exactly its configured profile.
+ *
+ * Configuration (config.yml):
+ * - damage.mob_defaults.&lt;attribute&gt;: value for every mob
+ * - damage.mob_defaults.per-level.&lt;attribute&gt;: added per mob level above 1 (see {@link MobLevelService})
+ * - damage.mob_profiles.vanilla.&lt;ENTITY_TYPE&gt;.&lt;attribute&gt;: overrides per entity type
+ * - damage.mob_profiles.vanilla.&lt;ENTITY_TYPE&gt;.per-level.&lt;attribute&gt;: replaces the default per-level values
+ * - damage.mob_profiles.mythic.&lt;internal name&gt;.&lt;attribute&gt;: overrides per MythicMobs type
+ * - damage.mob_profiles.mythic.&lt;internal name&gt;.per-level.&lt;attribute&gt;: added per MythicMobs level above 1
+ */
+public class MobProfileCache implements Listener {
+    private AttributeRegistry registry;
+    private double[] defaults = new double[0];
+    // Resolved lazily, indexed by EntityType ordinal.
+    private double[][] byType = new double[EntityType.values().length][];
+    private double[] defaultsPerLevel = new double[0];
+    // Per-level values per EntityType ordinal; null entries use defaultsPerLevel.
+    private double[][] perLevelByType = new double[EntityType.values().length][];
+    // Resolved lazily, keyed by levelKey(type, level).
+    private final Int2ObjectTable<double[]> byTypeLevel = new Int2ObjectTable<>(256);
+    private Map<String, double[]> mythicBase = new HashMap<>();
+    private Map<String, double[]> mythicPerLevel = new HashMap<>();
+    // Resolved lazily, keyed by "<internal name>#<level>".
+    private final Map<String, double[]> byMythicLevel = new HashMap<>();
+    private final Int2ObjectTable<double[]> byEntity = new Int2ObjectTable<>(1024);
+    private final MythicMobHook mythic;
+    private final MobLevelService levels; // null if mob levels are disabled
+    private final Logger logger;
+
+    public MobProfileCache(SandCore plugin) {
+        this.logger = plugin.getLogger();
+        this.levels = plugin.getMobLevelService();
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        if (Bukkit.getPluginManager().isPluginEnabled("MythicMobs")) {
+            this.mythic = new MythicMobHook(this);
+            plugin.getServer().getPluginManager().registerEvents(mythic, plugin);
+        } else {
+            this.mythic = null;
+        }
+    }
+
+    /**
+     * Parses the profile config against the given registry and forgets every
+     * resolved profile; live entities re-resolve on their next hit.
+     *
+     * @param damage the "damage" config section; may be null.
+     */
+    public void load(ConfigurationSection damage, AttributeRegistry registry) {
+        this.registry = registry;
+        ConfigurationSection mobDefaults = damage != null ? damage.getConfigurationSection("mob_defaults") : null;
+        this.defaults = parse(mobDefaults, null);
+        double[] defaultPerLevel = parse(mobDefaults != null ? mobDefaults.getConfigurationSection("per-level") : null, null);
+
+        double[][] types = new double[EntityType.values().length][];
+        double[][] typesPerLevel = new double[EntityType.values().length][];
+        ConfigurationSection vanilla = damage != null ? damage.getConfigurationSection("mob_profiles.vanilla") : null;
+        if (vanilla != null) {
+            for (String key : vanilla.getKeys(false)) {
+                try {
+                    int ordinal = EntityType.valueOf(key.toUpperCase()).ordinal();
+                    ConfigurationSection profile = vanilla.getConfigurationSection(key);
+                    types[ordinal] = parse(profile, defaults);
+                    if (profile != null && profile.isConfigurationSection("per-level")) {
+                        typesPerLevel[ordinal] = parse(profile.getConfigurationSection("per-level"), null);
+                    }
+                } catch (IllegalArgumentException e) {
+                    logger.warning("Unknown entity type in damage.mob_profiles.vanilla: " + key);
+                }
+            }
+        }
+
+        Map<String, double[]> base = new HashMap<>();
+        Map<String, double[]> perLevel = new HashMap<>();
+        ConfigurationSection mythicSection = damage != null ? damage.getConfigurationSection("mob_profiles.mythic") : null;
+        if (mythicSection != null) {
+            for (String key : mythicSection.getKeys(false)) {
+                ConfigurationSection profile = mythicSection.getConfigurationSection(key);
+                base.put(key, parse(profile, defaults));
+                perLevel.put(key, parse(profile != null ? profile.getConfigurationSection("per-level") : null, null));
+            }
+        }
+
+        this.byType = types;
+        this.defaultsPerLevel = defaultPerLevel;
+        this.perLevelByType = typesPerLevel;
+        byTypeLevel.clear();
+        this.mythicBase = base;
+        this.mythicPerLevel = perLevel;
+        byMythicLevel.clear();
+        // Attached profiles are laid out for the old registry, so they all go. Live
+        // entities re-resolve on their next hit. That assumes MythicMobs still tracks
+        // each MythicMob as an active mob (one it lost falls back to its entity
+        // type's profile), and that MobLevelService stored each vanilla mob's level
+        // on the entity (one without a stored level takes its current chunk's).
+        byEntity.clear();
+    }
+
+    /**
+     * Returns the profile of a non-player entity, resolving and attaching it on a miss.
+     */
+    public double[] profileOf(Entity entity) {
+        double[] profile = byEntity.get(entity.getEntityId());
+        if (profile == null) {
+            profile = resolve(entity);
+            byEntity.put(entity.getEntityId(), profile);
+        }
+        return profile;
+    }
+
+    private double[] resolve(Entity entity) {
+        if (mythic != null) {
+            double[] profile = mythic.resolve(entity);
+            if (profile != null) {
+                return profile;
+            }
+        }
+        return levels != null ? profileOf(entity.getType(), levels.levelOf(entity)) : profileOf(entity.getType());
+    }
+
+    public double[] profileOf(EntityType type) {
+        double[] profile = byType[type.ordinal()];
+        if (profile == null) {
+            profile = defaults;
+            byType[type.ordinal()] = profile;
+        }
+        return profile;
+    }
+
+    /**
+     * Returns the profile of an entity type at a mob level: the type's profile
+     * plus its per-level values times (level - 1).
+     */
+    public double[] profileOf(EntityType type, int level) {
+        double[] perLevel = perLevelByType[type.ordinal()];
+        if (perLevel == null) {
+            perLevel = defaultsPerLevel;
+        }
+        if (level <= 1 || perLevel.length == 0) {
+            return profileOf(type);
+        }
+        int key = levelKey(type, level);
+        double[] profile = byTypeLevel.get(key);
+        if (profile == null) {
+            double[] base = profileOf(type);
+            profile = Arrays.copyOf(base, Math.max(base.length, perLevel.length));
+            for (int slot = 0; slot < perLevel.length; slot++) {
+                profile[slot] += perLevel[slot] * (level - 1);
+            }
+            byTypeLevel.put(key, profile);
+        }
+        return profile;
+    }
+
+    private static int levelKey(EntityType type, int level) {
+        return (type.ordinal() << 16) | Math.min(level, 0xFFFF);
+    }
+
+    /**
+     * Returns the profile of a MythicMobs type at a level: the type's profile plus
+     * its per-level values times (level - 1). Returns null if the type has no
+     * profile of its own (the entity type's profile applies then).
+     */
+    public double[] profileOf(String mythicType, int level) {
+        double[] base = mythicBase.get(mythicType);
+        if (base == null) {
+            return null;
+        }
+        String key = mythicType + "#" + level;
+        double[] profile = byMythicLevel.get(key);
+        if (profile == null) {
+            double[] perLevel = mythicPerLevel.get(mythicType);
+            profile = Arrays.copyOf(base, Math.max(base.length, perLevel.length));
+            for (int slot = 0; slot < perLevel.length; slot++) {
+                profile[slot] += perLevel[slot] * Math.max(0, level - 1);
+            }
+            byMythicLevel.put(key, profile);
+        }
+        return profile;
+    }
+
+    void attach(Entity entity, double[] profile) {
+        byEntity.put(entity.getEntityId(), profile);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSpawn(CreatureSpawnEvent event) {
+        // The mob level service has assigned the level at NORMAL priority.
+        byEntity.put(event.getEntity().getEntityId(), levels != null
+                ? profileOf(event.getEntityType(), levels.levelOf(event.getEntity()))
+                : profileOf(event.getEntityType()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onDeath(EntityDeathEvent event) {
+        if (!(event.getEntity() instanceof Player)) {
+            byEntity.remove(event.getEntity().getEntityId());
+        }
+    }
+
+    @EventHandler
+    public void onRemove(EntityRemoveFromWorldEvent event) {
+        byEntity.remove(event.getEntity().getEntityId());
+    }
+
+    /**
+     * Reads attribute values from a section into a registry-sized array.
+     * Nested sections (e.g. per-level) are skipped, and attributes the stat
+     * registry does not know are reported and skipped.
+     */
+    private double[] parse(ConfigurationSection section, double[] inherited) {
+        double[] values = inherited != null ? inherited.clone() : new double[0];
+        if (section == null) {
+            return values;
+        }
+        for (String attribute : section.getKeys(false)) {
+            if (section.isConfigurationSection(attribute)) {
+                continue;
+            }
+            int slot = registry.slotOf(attribute);
+            if (slot < 0) {
+                logger.warning("Unknown attribute in " + section.getCurrentPath() + ": " + attribute + "; skipped.");
+                continue;
+            }
+            if (slot >= values.length) {
+                values = Arrays.copyOf(values, registry.size());
+            }
+            values[slot] = section.getDouble(attribute);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,45 @@
+package com.sandcore.damage;
+
+import java.util.Optional;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+import io.lumine.mythic.bukkit.MythicBukkit;
+import io.lumine.mythic.bukkit.events.MythicMobSpawnEvent;
+import io.lumine.mythic.core.mobs.ActiveMob;
+
+/**
+ * Resolves MythicMobs-specific mob profiles. Kept in its own class so the
+ * MythicMobs API is only loaded when the plugin is present.
+ */
+class MythicMobHook implements Listener {
+    private final MobProfileCache cache;
+
+    MythicMobHook(MobProfileCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the profile of the entity's MythicMobs type and level, or null if it
+     * is not a MythicMob or its type has no profile.
+     */
+    double[] resolve(Entity entity) {
+        Optional<ActiveMob> mob = MythicBukkit.inst().getMobManager().getActiveMob(entity.getUniqueId());
+        if (mob.isEmpty()) {
+            return null;
+        }
+        return cache.profileOf(mob.get().getMobType(), (int) mob.get().getLevel());
+    }
+
+    // Fires after the vanilla spawn event, replacing the entity-type profile.
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onMythicSpawn(MythicMobSpawnEvent event) {
+        double[] profile = cache.profileOf(event.getMobType().getInternalName(), (int) event.getMobLevel());
+        if (profile != null) {
+            cache.attach(event.getEntity(), profile);
+        }
+    }
+}
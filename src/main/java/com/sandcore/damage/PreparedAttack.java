@@ -0,0 +1,22 @@
+package com.sandcore.damage;
+
+/**
+ * The attacker-side half of a hit, evaluated once by
+ * {@link DamagePipeline#prepare} and then resolved against any number of victims.
+ * Instances are meant to be reused.
+ */
+public final class PreparedAttack {
+    int type;
+    double damage;
+    double criticalChance;
+    double criticalMultiplier;
+    double ignoredDefense;
+
+    public double getDamage() {
+        return damage;
+    }
+
+    public double getCriticalChance() {
+        return criticalChance;
+    }
+}
@@ -0,0 +1,142 @@
+package com.sandcore.damage;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Projectile;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityShootBowEvent;
+import org.bukkit.event.entity.ProjectileLaunchEvent;
+
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import com.sandcore.SandCore;
+import com.sandcore.stat.AttributeRegistry;
+import com.sandcore.stat.StatManager;
+import com.sandcore.stat.StatSnapshot;
+import com.sandcore.util.Int2ObjectTable;
+
+/**
+ * ProjectileTracker captures a player's stats when they launch a projectile, so
+ * its impact is computed from the stats at launch time: the shooter may have
+ * switched gear or logged off by the time it lands.
+ *
+ * Launches are kept in a transient table keyed by projectile entity id and
+ * dropped when the projectile leaves the world (picked up, despawned, unloaded).
+ *
+ * Configuration (config.yml):
+ * - damage.projectiles: entity types handled by SandCore (default: ARROW, SPECTRAL_ARROW, TRIDENT)
+ */
+public class ProjectileTracker implements Listener {
+    private final SandCore plugin;
+    private final StatManager statManager;
+    private final CritRoller critRoller;
+    private final Int2ObjectTable<Launch> launches = new Int2ObjectTable<>(256);
+    private Set<EntityType> types = EnumSet.of(EntityType.ARROW, EntityType.SPECTRAL_ARROW, EntityType.TRIDENT);
+    // Draw strength of the last bow shot, consumed by the launch event that follows it.
+    private int pendingProjectile = -1;
+    private double pendingForce;
+
+    public ProjectileTracker(SandCore plugin, StatManager statManager, CritRoller critRoller) {
+        this.plugin = plugin;
+        this.statManager = statManager;
+        this.critRoller = critRoller;
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    public void loadConfiguration(List<String> configured, Logger logger) {
+        if (configured == null || configured.isEmpty()) {
+            return;
+        }
+        Set<EntityType> parsed = EnumSet.noneOf(EntityType.class);
+        for (String name : configured) {
+            try {
+                parsed.add(EntityType.valueOf(name.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Unknown projectile type in damage.projectiles: " + name);
+            }
+        }
+        types = parsed;
+    }
+
+    /**
+     * Returns the launch captured for a projectile, or null if it was not shot by
+     * a player or is not a handled type.
+     */
+    public Launch get(Projectile projectile) {
+        return launches.get(projectile.getEntityId());
+    }
+
+    // Fires before the launch event and carries the draw strength. The launch may
+    // still be cancelled, so only the force is kept until the launch goes through.
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onShootBow(EntityShootBowEvent event) {
+        if (event.getEntity() instanceof Player && event.getProjectile() instanceof Projectile) {
+            pendingProjectile = event.getProjectile().getEntityId();
+            pendingForce = event.getForce();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLaunch(ProjectileLaunchEvent event) {
+        Projectile projectile = event.getEntity();
+        double force = projectile.getEntityId() == pendingProjectile ? pendingForce : 1.0;
+        pendingProjectile = -1;
+        if (projectile.getShooter() instanceof Player) {
+            capture((Player) projectile.getShooter(), projectile, force);
+        }
+    }
+
+    @EventHandler
+    public void onRemove(EntityRemoveFromWorldEvent event) {
+        if (event.getEntity() instanceof Projectile) {
+            launches.remove(event.getEntity().getEntityId());
+        }
+    }
+
+    private void capture(Player shooter, Projectile projectile, double force) {
+        if (!types.contains(projectile.getType())) {
+            return;
+        }
+        UUID uuid = shooter.getUniqueId();
+        StatSnapshot snapshot = statManager.getPlayerStats(shooter).takeSnapshot();
+        launches.put(projectile.getEntityId(), new Launch(
+                snapshot.getValues(),
+                snapshot.getRegistry(),
+                uuid,
+                plugin.getClassManager().getPlayerClass(uuid),
+                critRoller.session(uuid),
+                force));
+    }
+
+    /**
+     * Everything needed to resolve a projectile's hits without its shooter.
+     */
+    public static final class Launch {
+        final double[] values;
+        final AttributeRegistry registry;
+        final UUID shooter;
+        final String classId;
+        final CritRoller.Session crit;
+        final double coefficient;
+
+        Launch(double[] values, AttributeRegistry registry, UUID shooter, String classId, CritRoller.Session crit, double coefficient) {
+            this.values = values;
+            this.registry = registry;
+            this.shooter = shooter;
+            this.classId = classId;
+            this.crit = crit;
+            this.coefficient = coefficient;
+        }
+
+        public UUID getShooter() {
+            return shooter;
+        }
+    }
+}
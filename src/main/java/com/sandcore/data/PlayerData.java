@@ -1,10 +1,14 @@
 package com.sandcore.data;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents persistent leveling data for a player.
- * This data includes the player's XP and level.
+ * This data includes the player's XP and level, allocated stat points and the
+ * last derived stats (see {@link #getCachedStats()}).
  */
 public class PlayerData {
     private final UUID playerUUID;
@@ -12,6 +16,12 @@ public class PlayerData {
     private int level;
     private String selectedClass;
     private int statPoints;
+    // Points allocated per attribute name; read by the async auto-save.
+    private final Map<String, Integer> allocatedPoints = new ConcurrentHashMap<>();
+    // Derived stats as of the last save, valid only for the same formula config and level.
+    private volatile Map<String, Double> cachedStats = Collections.emptyMap();
+    private volatile String cachedStatsHash = "";
+    private volatile int cachedStatsLevel = -1;
     
     public PlayerData(UUID playerUUID) {
         this.playerUUID = playerUUID;
@@ -51,6 +61,38 @@ public class PlayerData {
     public int getStatPoints() { return statPoints; }
     public void setStatPoints(int points) { this.statPoints = points; }
     public void addStatPoints(int points) { this.statPoints += points; }
+
+    public Map<String, Integer> getAllocatedPoints() {
+        return allocatedPoints;
+    }
+
+    /**
+     * Returns the derived stats (attribute name to value, without temporary
+     * modifiers) stored on the last save, or an empty map if there are none.
+     */
+    public Map<String, Double> getCachedStats() {
+        return cachedStats;
+    }
+
+    /**
+     * The hash of the attribute formula config the cached stats were computed with.
+     */
+    public String getCachedStatsHash() {
+        return cachedStatsHash;
+    }
+
+    /**
+     * The level the cached stats were computed for.
+     */
+    public int getCachedStatsLevel() {
+        return cachedStatsLevel;
+    }
+
+    public void setCachedStats(Map<String, Double> stats, String hash, int level) {
+        this.cachedStats = Collections.unmodifiableMap(stats);
+        this.cachedStatsHash = hash;
+        this.cachedStatsLevel = level;
+    }
     
     /**
      * Adds XP to the player's current total. If the total XP exceeds the threshold
@@ -2,15 +2,26 @@ package com.sandcore.data;
 
 import java.io.File;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.logging.Logger;
 
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 /**
  * Manages persistent storage of player leveling data.
  * Data is persisted in a file (playerdata.yml) so that XP and level persist across class changes.
+ *
+ * Besides XP and level, each player entry stores the points allocated per attribute
+ * and a cached block of derived stats:
+ * <pre>
+ * players.&lt;uuid&gt;.allocated.&lt;attribute&gt;: points
+ * players.&lt;uuid&gt;.stats.hash: hash of the attribute formulas the values were computed with
+ * players.&lt;uuid&gt;.stats.level: level the values were computed for
+ * players.&lt;uuid&gt;.stats.values.&lt;attribute&gt;: value
+ * </pre>
  */
 public class PlayerDataManager {
     private final Map<UUID, PlayerData> playerDataMap;
@@ -44,6 +55,22 @@ public class PlayerDataManager {
                     data.setXP(xp);
                     data.setLevel(level);
                     data.setSelectedClass(selectedClass);
+                    data.setStatPoints(playerDataConfig.getInt("players." + key + ".statPoints", 0));
+                    ConfigurationSection allocated = playerDataConfig.getConfigurationSection("players." + key + ".allocated");
+                    if (allocated != null) {
+                        for (String attribute : allocated.getKeys(false)) {
+                            data.getAllocatedPoints().put(attribute, allocated.getInt(attribute));
+                        }
+                    }
+                    ConfigurationSection stats = playerDataConfig.getConfigurationSection("players." + key + ".stats");
+                    if (stats != null && stats.isConfigurationSection("values")) {
+                        Map<String, Double> values = new LinkedHashMap<>();
+                        ConfigurationSection valuesSection = stats.getConfigurationSection("values");
+                        for (String attribute : valuesSection.getKeys(false)) {
+                            values.put(attribute, valuesSection.getDouble(attribute));
+                        }
+                        data.setCachedStats(values, stats.getString("hash", ""), stats.getInt("level", -1));
+                    }
                     playerDataMap.put(uuid, data);
                 }
             }
@@ -65,6 +92,19 @@ public class PlayerDataManager {
                 playerDataConfig.set("players." + uuid.toString() + ".xp", data.getXP());
                 playerDataConfig.set("players." + uuid.toString() + ".level", data.getLevel());
                 playerDataConfig.set("players." + uuid.toString() + ".selectedClass", data.getSelectedClass());
+                playerDataConfig.set("players." + uuid.toString() + ".statPoints", data.getStatPoints());
+                playerDataConfig.set("players." + uuid.toString() + ".allocated", null);
+                for (Map.Entry<String, Integer> allocated : data.getAllocatedPoints().entrySet()) {
+                    playerDataConfig.set("players." + uuid.toString() + ".allocated." + allocated.getKey(), allocated.getValue());
+                }
+                if (!data.getCachedStats().isEmpty()) {
+                    playerDataConfig.set("players." + uuid.toString() + ".stats", null);
+                    playerDataConfig.set("players." + uuid.toString() + ".stats.hash", data.getCachedStatsHash());
+                    playerDataConfig.set("players." + uuid.toString() + ".stats.level", data.getCachedStatsLevel());
+                    for (Map.Entry<String, Double> stat : data.getCachedStats().entrySet()) {
+                        playerDataConfig.set("players." + uuid.toString() + ".stats.values." + stat.getKey(), stat.getValue());
+                    }
+                }
             }
             playerDataConfig.save(playerDataFile);
             logger.info("Player data saved successfully.");
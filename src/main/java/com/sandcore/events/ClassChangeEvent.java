@@ -0,0 +1,41 @@
+package com.sandcore.events;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.player.PlayerEvent;
+
+/**
+ * Fired on the main thread after a player has selected a new class.
+ */
+public class ClassChangeEvent extends PlayerEvent {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final String oldClass;
+    private final String newClass;
+
+    public ClassChangeEvent(Player player, String oldClass, String newClass) {
+        super(player);
+        this.oldClass = oldClass;
+        this.newClass = newClass;
+    }
+
+    /**
+     * @return the previous class id, or "none" if the player had no class.
+     */
+    public String getOldClass() {
+        return oldClass;
+    }
+
+    public String getNewClass() {
+        return newClass;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
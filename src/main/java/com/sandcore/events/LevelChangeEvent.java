@@ -0,0 +1,39 @@
+package com.sandcore.events;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.player.PlayerEvent;
+
+/**
+ * Fired on the main thread after a player's SandCore level has changed,
+ * whether through XP gain or an admin command.
+ */
+public class LevelChangeEvent extends PlayerEvent {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final int oldLevel;
+    private final int newLevel;
+
+    public LevelChangeEvent(Player player, int oldLevel, int newLevel) {
+        super(player);
+        this.oldLevel = oldLevel;
+        this.newLevel = newLevel;
+    }
+
+    public int getOldLevel() {
+        return oldLevel;
+    }
+
+    public int getNewLevel() {
+        return newLevel;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -0,0 +1,46 @@
+package com.sandcore.events;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.player.PlayerEvent;
+
+import com.sandcore.stat.StatSnapshot;
+
+/**
+ * Fired on the main thread at the end of a tick in which a player's stats were
+ * republished, at most once per player per tick. Compare the two snapshots to
+ * react to the attributes that actually changed.
+ */
+public class StatsChangeEvent extends PlayerEvent {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final StatSnapshot previous;
+    private final StatSnapshot current;
+
+    public StatsChangeEvent(Player player, StatSnapshot previous, StatSnapshot current) {
+        super(player);
+        this.previous = previous;
+        this.current = current;
+    }
+
+    /**
+     * The snapshot announced by the previous event for this player, or null if
+     * this is the first since the player's stats were loaded.
+     */
+    public StatSnapshot getPrevious() {
+        return previous;
+    }
+
+    public StatSnapshot getCurrent() {
+        return current;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
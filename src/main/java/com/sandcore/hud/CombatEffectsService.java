@@ -0,0 +1,279 @@
+package com.sandcore.hud;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.Sound;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+import com.sandcore.SandCore;
+
+/**
+ * CombatEffectsService plays combat particles and sounds (e.g. on critical hits)
+ * without broadcasting every request.
+ *
+ * Requests are only queued when they happen. Once per tick, requests of the same
+ * effect in the same small cell are merged into one, then each effect is sent to
+ * the players near it, individually: players farther than the full-detail
+ * distance get proportionally fewer particles, players beyond the view distance
+ * get nothing. Each player has a per-tick particle and sound budget; effects past
+ * it are dropped for that player only.
+ *
+ * Configuration (config.yml):
+ * - effects.enabled: whether the service runs at all (default: true)
+ * - effects.view_distance: blocks within which particles are sent (default: 32)
+ * - effects.full_detail_distance: blocks within which the full particle count is sent (default: 8)
+ * - effects.sound_distance: blocks within which public sounds are heard (default: 16)
+ * - effects.merge_distance: size of the cells effects are merged in (default: 1.0)
+ * - effects.max_particles_per_tick / effects.max_sounds_per_tick: per-player budget (default: 200 / 4)
+ * - effects.critical: particle, count, spread, sound, volume, pitch of a critical hit
+ */
+public class CombatEffectsService {
+    private final SandCore plugin;
+    // Requests of this tick, merged per effect and cell.
+    private final Map<EffectKey, PendingEffect> pending = new HashMap<>();
+    private final List<PendingEffect> pendingOrder = new ArrayList<>();
+    // Per-player spending in the current flush.
+    private final Map<UUID, int[]> budgets = new HashMap<>();
+
+    private double viewDistanceSquared;
+    private double fullDetailDistance;
+    private double viewDistance;
+    private double soundDistanceSquared;
+    private double mergeDistance;
+    private int maxParticles;
+    private int maxSounds;
+
+    private Particle criticalParticle;
+    private int criticalCount;
+    private double criticalSpread;
+    private Sound criticalSound;
+    private float criticalVolume;
+    private float criticalPitch;
+
+    public CombatEffectsService(SandCore plugin) {
+        this.plugin = plugin;
+        loadConfiguration();
+        Bukkit.getScheduler().runTaskTimer(plugin, this::flush, 1L, 1L);
+    }
+
+    public void loadConfiguration() {
+        ConfigurationSection config = plugin.getConfig();
+        viewDistance = config.getDouble("effects.view_distance", 32.0);
+        viewDistanceSquared = viewDistance * viewDistance;
+        fullDetailDistance = Math.min(viewDistance, config.getDouble("effects.full_detail_distance", 8.0));
+        double soundDistance = config.getDouble("effects.sound_distance", 16.0);
+        soundDistanceSquared = soundDistance * soundDistance;
+        mergeDistance = Math.max(0.1, config.getDouble("effects.merge_distance", 1.0));
+        maxParticles = Math.max(0, config.getInt("effects.max_particles_per_tick", 200));
+        maxSounds = Math.max(0, config.getInt("effects.max_sounds_per_tick", 4));
+
+        criticalParticle = parseParticle(config.getString("effects.critical.particle", "CRIT"));
+        criticalCount = Math.max(0, config.getInt("effects.critical.count", 30));
+        criticalSpread = config.getDouble("effects.critical.spread", 0.5);
+        criticalSound = parseSound(config.getString("effects.critical.sound", "ENTITY_PLAYER_LEVELUP"));
+        criticalVolume = (float) config.getDouble("effects.critical.volume", 1.0);
+        criticalPitch = (float) config.getDouble("effects.critical.pitch", 1.5);
+    }
+
+    /**
+     * Queues the critical hit effect: particles around the attacker, seen by
+     * nearby players, and a sound only the attacker hears.
+     */
+    public void critical(Player attacker) {
+        Location location = attacker.getLocation();
+        if (criticalParticle != null && criticalCount > 0) {
+            particle(location, criticalParticle, criticalCount, criticalSpread);
+        }
+        if (criticalSound != null) {
+            sound(attacker, location, criticalSound, criticalVolume, criticalPitch);
+        }
+    }
+
+    /**
+     * Queues particles for every player near the location. Duplicates in the same
+     * cell this tick are merged, keeping the largest count.
+     */
+    public void particle(Location location, Particle particle, int count, double spread) {
+        PendingEffect effect = queue(new EffectKey(location, mergeDistance, particle, null, null), location);
+        effect.particle = particle;
+        effect.count = Math.max(effect.count, count);
+        effect.spread = Math.max(effect.spread, spread);
+    }
+
+    /**
+     * Queues a sound.
+     *
+     * @param listener the only player to hear it, or null for every player within the sound distance.
+     */
+    public void sound(Player listener, Location location, Sound sound, float volume, float pitch) {
+        UUID listenerId = listener != null ? listener.getUniqueId() : null;
+        PendingEffect effect = queue(new EffectKey(location, mergeDistance, null, sound, listenerId), location);
+        effect.sound = sound;
+        effect.listener = listenerId;
+        effect.volume = Math.max(effect.volume, volume);
+        effect.pitch = pitch;
+    }
+
+    private PendingEffect queue(EffectKey key, Location location) {
+        PendingEffect effect = pending.get(key);
+        if (effect == null) {
+            effect = new PendingEffect(location.clone());
+            pending.put(key, effect);
+            pendingOrder.add(effect);
+        }
+        return effect;
+    }
+
+    private void flush() {
+        if (pendingOrder.isEmpty()) {
+            return;
+        }
+        for (PendingEffect effect : pendingOrder) {
+            World world = effect.location.getWorld();
+            if (world == null) {
+                continue;
+            }
+            if (effect.sound != null) {
+                playSound(effect, world);
+            } else {
+                spawnParticles(effect, world);
+            }
+        }
+        pendingOrder.clear();
+        pending.clear();
+        budgets.clear();
+    }
+
+    private void spawnParticles(PendingEffect effect, World world) {
+        for (Player player : world.getPlayers()) {
+            double distanceSquared = player.getLocation().distanceSquared(effect.location);
+            if (distanceSquared > viewDistanceSquared) {
+                continue;
+            }
+            int[] budget = budgets.computeIfAbsent(player.getUniqueId(), uuid -> new int[2]);
+            int count = Math.min(lodCount(effect.count, Math.sqrt(distanceSquared)), maxParticles - budget[0]);
+            if (count <= 0) {
+                continue;
+            }
+            budget[0] += count;
+            player.spawnParticle(effect.particle, effect.location, count, effect.spread, effect.spread, effect.spread, 0.0);
+        }
+    }
+
+    private void playSound(PendingEffect effect, World world) {
+        if (effect.listener != null) {
+            Player player = Bukkit.getPlayer(effect.listener);
+            if (player != null && player.getWorld() == world) {
+                playSound(player, effect);
+            }
+            return;
+        }
+        for (Player player : world.getPlayers()) {
+            if (player.getLocation().distanceSquared(effect.location) <= soundDistanceSquared) {
+                playSound(player, effect);
+            }
+        }
+    }
+
+    private void playSound(Player player, PendingEffect effect) {
+        int[] budget = budgets.computeIfAbsent(player.getUniqueId(), uuid -> new int[2]);
+        if (budget[1] >= maxSounds) {
+            return;
+        }
+        budget[1]++;
+        player.playSound(effect.location, effect.sound, effect.volume, effect.pitch);
+    }
+
+    /**
+     * Full count up to the full-detail distance, then linearly fewer particles
+     * down to one at the view distance.
+     */
+    private int lodCount(int count, double distance) {
+        if (distance <= fullDetailDistance || viewDistance <= fullDetailDistance) {
+            return count;
+        }
+        double fraction = 1.0 - (distance - fullDetailDistance) / (viewDistance - fullDetailDistance);
+        return Math.max(1, (int) Math.round(count * fraction));
+    }
+
+    private Particle parseParticle(String name) {
+        try {
+            return name != null ? Particle.valueOf(name.toUpperCase()) : null;
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Unknown particle in effects config: " + name);
+            return null;
+        }
+    }
+
+    private Sound parseSound(String name) {
+        try {
+            return name != null ? Sound.valueOf(name.toUpperCase()) : null;
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Unknown sound in effects config: " + name);
+            return null;
+        }
+    }
+
+    private static final class PendingEffect {
+        final Location location;
+        Particle particle;
+        int count;
+        double spread;
+        Sound sound;
+        UUID listener;
+        float volume;
+        float pitch;
+
+        PendingEffect(Location location) {
+            this.location = location;
+        }
+    }
+
+    /**
+     * Identifies one effect in one merge cell of one world.
+     */
+    private static final class EffectKey {
+        final UUID world;
+        final long x;
+        final long y;
+        final long z;
+        final Particle particle;
+        final Sound sound;
+        final UUID listener;
+
+        EffectKey(Location location, double cell, Particle particle, Sound sound, UUID listener) {
+            this.world = location.getWorld() != null ? location.getWorld().getUID() : null;
+            this.x = (long) Math.floor(location.getX() / cell);
+            this.y = (long) Math.floor(location.getY() / cell);
+            this.z = (long) Math.floor(location.getZ() / cell);
+            this.particle = particle;
+            this.sound = sound;
+            this.listener = listener;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof EffectKey)) {
+                return false;
+            }
+            EffectKey other = (EffectKey) o;
+            return x == other.x && y == other.y && z == other.z && particle == other.particle && sound == other.sound
+                    && Objects.equals(world, other.world) && Objects.equals(listener, other.listener);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(world, x, y, z, particle, sound, listener);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.sandcore.hud;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.TextDisplay;
+
+import com.sandcore.SandCore;
+import com.sandcore.util.ChatUtil;
+import com.sandcore.util.Int2ObjectTable;
+
+/**
+ * DamageIndicatorService shows floating damage numbers over victims using
+ * TextDisplay entities.
+ *
+ * Hits are only recorded when they happen; once per tick all hits on the same
+ * victim are merged into one number. Displays are never shown to everyone: each
+ * one is hidden by default and shown only to players within the view distance.
+ * Expired displays are hidden and returned to a per-world pool instead of being
+ * removed, so a burst of AoE hits reuses the same few entities.
+ *
+ * Configuration (config.yml):
+ * - indicators.enabled: whether the service runs at all (default: true)
+ * - indicators.view_distance: blocks within which players see a number (default: 24)
+ * - indicators.duration: ticks a number stays visible (default: 20)
+ * - indicators.max_active: cap on simultaneously visible numbers (default: 64)
+ * - indicators.format / indicators.critical_format: text, supports {damage}
+ * - indicators.aggregate_format: text of a batch (AoE) hit, supports {damage} and {targets}
+ */
+public class DamageIndicatorService {
+    private final SandCore plugin;
+    // Hits recorded this tick, merged per victim entity id.
+    private final Int2ObjectTable<PendingHit> pending = new Int2ObjectTable<>();
+    private final List<PendingHit> pendingOrder = new ArrayList<>();
+    // Batch hits are not tied to one victim and are never merged.
+    private final List<PendingHit> pendingAggregates = new ArrayList<>();
+    private final List<Indicator> active = new ArrayList<>();
+    private final Map<UUID, Deque<Indicator>> idle = new HashMap<>();
+    private long tick;
+
+    private double viewDistanceSquared;
+    private int duration;
+    private int maxActive;
+    private String format;
+    private String criticalFormat;
+    private String aggregateFormat;
+
+    public DamageIndicatorService(SandCore plugin) {
+        this.plugin = plugin;
+        loadConfiguration();
+        Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    public void loadConfiguration() {
+        double viewDistance = plugin.getConfig().getDouble("indicators.view_distance", 24.0);
+        viewDistanceSquared = viewDistance * viewDistance;
+        duration = Math.max(1, plugin.getConfig().getInt("indicators.duration", 20));
+        maxActive = Math.max(1, plugin.getConfig().getInt("indicators.max_active", 64));
+        format = plugin.getConfig().getString("indicators.format", "&c-{damage}");
+        criticalFormat = plugin.getConfig().getString("indicators.critical_format", "&6&l-{damage}");
+        aggregateFormat = plugin.getConfig().getString("indicators.aggregate_format", "&c-{damage} &7x{targets}");
+    }
+
+    /**
+     * Records damage dealt to a victim this tick. Shown at the end of the tick,
+     * summed with any other hits on the same victim.
+     */
+    public void record(Entity victim, double damage, boolean critical) {
+        PendingHit hit = pending.get(victim.getEntityId());
+        if (hit == null) {
+            hit = new PendingHit(victim);
+            pending.put(victim.getEntityId(), hit);
+            pendingOrder.add(hit);
+        }
+        hit.damage += damage;
+        hit.critical |= critical;
+    }
+
+    /**
+     * Records one number for a batch of hits, e.g. an AoE skill, shown at the
+     * given location (typically the centre of the victims).
+     */
+    public void recordAggregate(Location location, double damage, int targets, boolean critical) {
+        PendingHit hit = new PendingHit(null);
+        hit.location = location;
+        hit.damage = damage;
+        hit.targets = targets;
+        hit.critical = critical;
+        pendingAggregates.add(hit);
+    }
+
+    private void tick() {
+        tick++;
+        expire();
+        if (pendingOrder.isEmpty() && pendingAggregates.isEmpty()) {
+            return;
+        }
+        for (PendingHit hit : pendingAggregates) {
+            if (active.size() < maxActive) {
+                show(hit, hit.location, aggregateFormat);
+            }
+        }
+        for (PendingHit hit : pendingOrder) {
+            if (active.size() >= maxActive) {
+                break; // Drop the rest of this tick's numbers rather than flood the world.
+            }
+            if (hit.victim.isValid()) {
+                Location location = hit.victim.getLocation().add(
+                        (Math.random() - 0.5) * 0.6, hit.victim.getHeight() + 0.3, (Math.random() - 0.5) * 0.6);
+                show(hit, location, hit.critical ? criticalFormat : format);
+            }
+        }
+        pendingAggregates.clear();
+        pendingOrder.clear();
+        pending.clear();
+    }
+
+    private void show(PendingHit hit, Location location, String template) {
+        List<Player> viewers = new ArrayList<>();
+        for (Player player : location.getWorld().getPlayers()) {
+            if (player.getLocation().distanceSquared(location) <= viewDistanceSquared) {
+                viewers.add(player);
+            }
+        }
+        if (viewers.isEmpty()) {
+            return;
+        }
+
+        Indicator indicator = acquire(location);
+        String text = template.replace("{damage}", String.format("%.1f", hit.damage))
+                              .replace("{targets}", String.valueOf(hit.targets));
+        indicator.display.setText(ChatUtil.translateGradientsAndHex(text));
+        for (Player player : viewers) {
+            player.showEntity(plugin, indicator.display);
+            indicator.viewers.add(player.getUniqueId());
+        }
+        indicator.expiresAt = tick + duration;
+        active.add(indicator);
+    }
+
+    /**
+     * Takes an idle display from the world's pool, or spawns one if the pool is empty.
+     */
+    private Indicator acquire(Location location) {
+        World world = location.getWorld();
+        Deque<Indicator> pool = idle.get(world.getUID());
+        while (pool != null && !pool.isEmpty()) {
+            Indicator indicator = pool.poll();
+            if (indicator.display.isValid()) {
+                indicator.display.teleport(location);
+                return indicator;
+            }
+        }
+        TextDisplay display = world.spawn(location, TextDisplay.class, spawned -> {
+            spawned.setVisibleByDefault(false);
+            spawned.setPersistent(false);
+            spawned.setBillboard(Display.Billboard.CENTER);
+            spawned.setShadowed(true);
+        });
+        return new Indicator(display);
+    }
+
+    private void expire() {
+        Iterator<Indicator> iterator = active.iterator();
+        while (iterator.hasNext()) {
+            Indicator indicator = iterator.next();
+            if (indicator.expiresAt > tick) {
+                continue;
+            }
+            iterator.remove();
+            hide(indicator);
+            if (indicator.display.isValid()) {
+                idle.computeIfAbsent(indicator.display.getWorld().getUID(), uid -> new ArrayDeque<>()).push(indicator);
+            }
+        }
+    }
+
+    private void hide(Indicator indicator) {
+        for (UUID uuid : indicator.viewers) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null) {
+                player.hideEntity(plugin, indicator.display);
+            }
+        }
+        indicator.viewers.clear();
+    }
+
+    /**
+     * Removes every display entity. Called on plugin disable.
+     */
+    public void shutdown() {
+        for (Indicator indicator : active) {
+            indicator.display.remove();
+        }
+        for (Deque<Indicator> pool : idle.values()) {
+            for (Indicator indicator : pool) {
+                indicator.display.remove();
+            }
+        }
+        active.clear();
+        idle.clear();
+        pending.clear();
+        pendingOrder.clear();
+        pendingAggregates.clear();
+    }
+
+    private static final class PendingHit {
+        final Entity victim; // null for aggregates
+        Location location;   // aggregates only
+        double damage;
+        int targets = 1;
+        boolean critical;
+
+        PendingHit(Entity victim) {
+            this.victim = victim;
+        }
+    }
+
+    private static final class Indicator {
+        final TextDisplay display;
+        final List<UUID> viewers = new ArrayList<>();
+        long expiresAt;
+
+        Indicator(TextDisplay display) {
+            this.display = display;
+        }
+    }
+}
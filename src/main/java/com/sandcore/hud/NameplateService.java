@@ -0,0 +1,163 @@
+package com.sandcore.hud;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.Team;
+
+import com.sandcore.SandCore;
+import com.sandcore.classes.ClassManager;
+import com.sandcore.data.PlayerDataManager;
+import com.sandcore.events.ClassChangeEvent;
+import com.sandcore.events.LevelChangeEvent;
+import com.sandcore.util.ChatUtil;
+
+/**
+ * NameplateService shows each player's SandCore level and class above their head
+ * and in the tab list, using one scoreboard team per player on the main scoreboard.
+ *
+ * Level-up and class-change events only mark a player as dirty. Once per tick all
+ * dirty players are rendered in a single batch, and the team is only touched when
+ * the rendered prefix differs from the last one sent, so bursts of XP events cost
+ * at most one team update per player per tick.
+ *
+ * Configuration (config.yml):
+ * - nameplate.enabled: whether the service runs at all (default: true)
+ * - nameplate.format: prefix template, supports {level} and {class}
+ */
+public class NameplateService implements Listener {
+    private static final String TEAM_PREFIX = "sc_";
+
+    private final SandCore plugin;
+    private final PlayerDataManager playerDataManager;
+    private final ClassManager classManager;
+    private final Set<UUID> dirty = new LinkedHashSet<>();
+    private final Map<UUID, String> rendered = new HashMap<>();
+    private String format;
+
+    public NameplateService(SandCore plugin, PlayerDataManager playerDataManager, ClassManager classManager) {
+        this.plugin = plugin;
+        this.playerDataManager = playerDataManager;
+        this.classManager = classManager;
+        loadConfiguration();
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        Bukkit.getScheduler().runTaskTimer(plugin, this::flush, 1L, 1L);
+        // Players already online (e.g. after /reload) need an initial render.
+        Bukkit.getOnlinePlayers().forEach(this::markDirty);
+    }
+
+    /**
+     * (Re)reads the nameplate format and re-renders everyone on the next tick.
+     */
+    public void loadConfiguration() {
+        format = plugin.getConfig().getString("nameplate.format", "&7[&aLv {level}&7] {class} ");
+        Bukkit.getOnlinePlayers().forEach(this::markDirty);
+    }
+
+    /**
+     * Queues the player for re-rendering at the end of the current tick.
+     */
+    public void markDirty(Player player) {
+        dirty.add(player.getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLevelChange(LevelChangeEvent event) {
+        markDirty(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onClassChange(ClassChangeEvent event) {
+        markDirty(event.getPlayer());
+    }
+
+    @EventHandler
+    public void onJoin(PlayerJoinEvent event) {
+        markDirty(event.getPlayer());
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        Player player = event.getPlayer();
+        dirty.remove(player.getUniqueId());
+        rendered.remove(player.getUniqueId());
+        Team team = mainScoreboard().getTeam(teamName(player));
+        if (team != null) {
+            team.unregister();
+        }
+    }
+
+    /**
+     * Applies all pending nameplate changes in one pass.
+     */
+    private void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        Scoreboard board = mainScoreboard();
+        for (UUID uuid : dirty) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player == null) {
+                continue;
+            }
+            String prefix = render(player);
+            if (prefix.equals(rendered.get(uuid))) {
+                continue;
+            }
+            String name = teamName(player);
+            Team team = board.getTeam(name);
+            if (team == null) {
+                team = board.registerNewTeam(name);
+            }
+            if (!team.hasEntry(player.getName())) {
+                team.addEntry(player.getName());
+            }
+            team.setPrefix(prefix);
+            rendered.put(uuid, prefix);
+        }
+        dirty.clear();
+    }
+
+    private String render(Player player) {
+        int level = playerDataManager.getPlayerData(player.getUniqueId()).getLevel();
+        String classId = classManager.getPlayerClass(player.getUniqueId());
+        String className = "none".equals(classId) ? "" : classManager.getFormattedClassName(classId);
+        String prefix = format.replace("{level}", String.valueOf(level))
+                              .replace("{class}", className);
+        return ChatUtil.translateGradientsAndHex(prefix) + ChatColor.RESET;
+    }
+
+    private String teamName(Player player) {
+        return TEAM_PREFIX + player.getName();
+    }
+
+    private Scoreboard mainScoreboard() {
+        return Bukkit.getScoreboardManager().getMainScoreboard();
+    }
+
+    /**
+     * Removes every team created by this service. Called on plugin disable.
+     */
+    public void shutdown() {
+        Scoreboard board = mainScoreboard();
+        for (Team team : board.getTeams()) {
+            if (team.getName().startsWith(TEAM_PREFIX)) {
+                team.unregister();
+            }
+        }
+        rendered.clear();
+        dirty.clear();
+    }
+}
@@ -20,6 +20,7 @@ import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemFlag;
 
 import com.sandcore.SandCore;
+import com.sandcore.stat.StatModifier;
 import com.sandcore.util.ColorParser;
 
 public class CustomItem {
@@ -30,6 +31,7 @@ public class CustomItem {
     private int level;
     private Rarity rarity;
     private Map<String, Object> attributes;
+    private final List<StatModifier> statModifiers = new ArrayList<>();
     private Map<String, Object> effects;
     private String slot;
     private ItemStack baseItem;
@@ -88,6 +90,15 @@ public class CustomItem {
         this.level = config.getInt("level", 1);
         this.rarity = Rarity.valueOf(config.getString("rarity", "COMMON").toUpperCase());
         this.attributes = config.getConfigurationSection("attributes").getValues(false);
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            StatModifier modifier = StatModifier.parse(entry.getKey(), entry.getValue());
+            if (modifier == null) {
+                plugin.getLogger().warning("Item " + id + " has an invalid value for attribute "
+                        + entry.getKey() + ": " + entry.getValue());
+                continue;
+            }
+            statModifiers.add(modifier);
+        }
         this.effects = config.getConfigurationSection("effects").getValues(false);
         this.slot = config.getString("slot", "mainhand");
         this.craftable = config.getBoolean("craftable", false);
@@ -135,6 +146,14 @@ public class CustomItem {
         return 0.0;
     }
 
+    /**
+     * Returns the stat modifiers this item grants while equipped in its slot,
+     * parsed once from the attributes section.
+     */
+    public List<StatModifier> getStatModifiers() {
+        return statModifiers;
+    }
+
     public ItemStack buildItem() {
         ItemStack item = new ItemStack(material);
         ItemMeta meta = item.getItemMeta();
@@ -0,0 +1,286 @@
+package com.sandcore.levels;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import com.sandcore.SandCore;
+import com.sandcore.stat.AttributeRegistry;
+import com.sandcore.stat.formula.Formula;
+import com.sandcore.stat.formula.FormulaCompiler;
+import com.sandcore.stat.formula.FormulaException;
+import com.sandcore.util.Long2IntTable;
+
+/**
+ * MobLevelService gives every mob a level from where it spawned.
+ *
+ * The level of a chunk comes from the first configured region containing the
+ * chunk's centre, or else from a formula over the chunk's position. It is
+ * computed once per loaded chunk and cached until the chunk unloads. A mob's
+ * level is taken from that cache when it spawns and stored on the mob, so it
+ * survives chunk unloads and restarts even if the mob has wandered since. Mobs
+ * without a stored level (spawned before mob levels were enabled) get one from
+ * their current chunk when first asked. Loaded mobs' levels are also cached by
+ * entity id, so XP and mitigation read them with a single lookup. Levels of
+ * existing mobs do not change on reload.
+ *
+ * Configuration (config.yml):
+ * - mob_levels.enabled: whether mobs get levels at all (default: true)
+ * - mob_levels.formula: level from x, z (chunk centre) and distance (blocks from world spawn)
+ * - mob_levels.min / mob_levels.max: clamp (default: 1 / 100)
+ * - mob_levels.xp_per_level: extra XP per level above 1, as a fraction of the base XP (default: 0.1)
+ * - mob_levels.regions.&lt;name&gt;: world, from/to corners "x,z" in blocks, and a level or formula
+ */
+public class MobLevelService implements Listener {
+    private final SandCore plugin;
+    // Chunk levels of loaded chunks, per world.
+    private final Map<UUID, Long2IntTable> chunkLevels = new HashMap<>();
+    // Cache of the levels stored on loaded mobs.
+    private final Long2IntTable entityLevels = new Long2IntTable(1024);
+    private final NamespacedKey levelKey;
+
+    private Formula formula;
+    private int variableX;
+    private int variableZ;
+    private int variableDistance;
+    private int variableCount;
+    private List<Region> regions = new ArrayList<>();
+    private int minLevel;
+    private int maxLevel;
+    private double xpPerLevel;
+
+    public MobLevelService(SandCore plugin) {
+        this.plugin = plugin;
+        this.levelKey = new NamespacedKey(plugin, "mob_level");
+        loadConfiguration();
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    /**
+     * Recompiles the formula and regions and forgets every cached chunk level.
+     */
+    public void loadConfiguration() {
+        ConfigurationSection config = plugin.getConfig().getConfigurationSection("mob_levels");
+        if (config == null) {
+            config = plugin.getConfig().createSection("mob_levels");
+        }
+        minLevel = Math.max(1, config.getInt("min", 1));
+        maxLevel = Math.max(minLevel, config.getInt("max", 100));
+        xpPerLevel = config.getDouble("xp_per_level", 0.1);
+
+        AttributeRegistry variables = new AttributeRegistry();
+        variableX = variables.register("x");
+        variableZ = variables.register("z");
+        variableDistance = variables.register("distance");
+        FormulaCompiler compiler = new FormulaCompiler(variables);
+        formula = compile(compiler, config.getString("formula", "1 + distance / 250"), "mob_levels.formula");
+
+        List<Region> loaded = new ArrayList<>();
+        ConfigurationSection regionSection = config.getConfigurationSection("regions");
+        if (regionSection != null) {
+            for (String name : regionSection.getKeys(false)) {
+                Region region = Region.fromConfig(name, regionSection.getConfigurationSection(name), compiler, this);
+                if (region != null) {
+                    loaded.add(region);
+                }
+            }
+        }
+        variableCount = variables.size();
+        regions = loaded;
+        chunkLevels.clear();
+    }
+
+    /**
+     * Returns the level of a mob, assigning it from its current chunk if it has none.
+     */
+    public int levelOf(Entity entity) {
+        int level = entityLevels.get(entity.getEntityId(), 0);
+        if (level == 0) {
+            PersistentDataContainer data = entity.getPersistentDataContainer();
+            Integer stored = data.get(levelKey, PersistentDataType.INTEGER);
+            if (stored != null && stored > 0) {
+                level = stored;
+            } else {
+                level = levelAt(entity.getLocation());
+                data.set(levelKey, PersistentDataType.INTEGER, level);
+            }
+            entityLevels.put(entity.getEntityId(), level);
+        }
+        return level;
+    }
+
+    /**
+     * Returns the level of the chunk containing the location.
+     */
+    public int levelAt(Location location) {
+        World world = location.getWorld();
+        int chunkX = location.getBlockX() >> 4;
+        int chunkZ = location.getBlockZ() >> 4;
+        long key = Chunk.getChunkKey(chunkX, chunkZ);
+        Long2IntTable levels = chunkLevels.computeIfAbsent(world.getUID(), uid -> new Long2IntTable(1024));
+        int level = levels.get(key, 0);
+        if (level == 0) {
+            level = computeLevel(world, chunkX, chunkZ);
+            levels.put(key, level);
+        }
+        return level;
+    }
+
+    /**
+     * Scales a base XP reward by the mob's level.
+     */
+    public int scaleXP(int baseXP, Entity entity) {
+        int level = levelOf(entity);
+        return (int) Math.round(baseXP * (1.0 + (level - 1) * xpPerLevel));
+    }
+
+    private int computeLevel(World world, int chunkX, int chunkZ) {
+        double x = (chunkX << 4) + 8;
+        double z = (chunkZ << 4) + 8;
+        Formula chosen = formula;
+        for (Region region : regions) {
+            if (region.contains(world.getName(), x, z)) {
+                if (region.formula == null) {
+                    return clamp(region.level);
+                }
+                chosen = region.formula;
+                break;
+            }
+        }
+        if (chosen == null) {
+            return minLevel;
+        }
+        Location spawn = world.getSpawnLocation();
+        double[] values = new double[variableCount];
+        values[variableX] = x;
+        values[variableZ] = z;
+        values[variableDistance] = Math.hypot(x - spawn.getX(), z - spawn.getZ());
+        double result = chosen.evaluate(values);
+        return clamp(Double.isFinite(result) ? (int) Math.floor(result) : minLevel);
+    }
+
+    private int clamp(int level) {
+        return Math.max(minLevel, Math.min(maxLevel, level));
+    }
+
+    Formula compile(FormulaCompiler compiler, String source, String path) {
+        if (source == null) {
+            return null;
+        }
+        try {
+            return compiler.compile(source);
+        } catch (FormulaException e) {
+            plugin.getLogger().severe("Invalid formula for " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Before the mob profile cache attaches a profile at MONITOR.
+    @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
+    public void onSpawn(CreatureSpawnEvent event) {
+        int level = levelAt(event.getLocation());
+        event.getEntity().getPersistentDataContainer().set(levelKey, PersistentDataType.INTEGER, level);
+        entityLevels.put(event.getEntity().getEntityId(), level);
+    }
+
+    // After XP has been awarded.
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onDeath(EntityDeathEvent event) {
+        if (!(event.getEntity() instanceof Player)) {
+            entityLevels.remove(event.getEntity().getEntityId());
+        }
+    }
+
+    @EventHandler
+    public void onRemove(EntityRemoveFromWorldEvent event) {
+        if (event.getEntity() instanceof LivingEntity) {
+            entityLevels.remove(event.getEntity().getEntityId());
+        }
+    }
+
+    @EventHandler
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        Long2IntTable levels = chunkLevels.get(event.getWorld().getUID());
+        if (levels != null) {
+            levels.remove(event.getChunk().getChunkKey());
+        }
+    }
+
+    private static final class Region {
+        final String world;
+        final double minX;
+        final double minZ;
+        final double maxX;
+        final double maxZ;
+        final int level;
+        final Formula formula; // null for a fixed level
+
+        Region(String world, double minX, double minZ, double maxX, double maxZ, int level, Formula formula) {
+            this.world = world;
+            this.minX = minX;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxZ = maxZ;
+            this.level = level;
+            this.formula = formula;
+        }
+
+        static Region fromConfig(String name, ConfigurationSection section, FormulaCompiler compiler, MobLevelService service) {
+            if (section == null) {
+                return null;
+            }
+            double[] from = parseCorner(section.getString("from"));
+            double[] to = parseCorner(section.getString("to"));
+            if (from == null || to == null) {
+                service.plugin.getLogger().warning("Mob level region " + name + " needs from and to as \"x,z\"; skipped.");
+                return null;
+            }
+            Formula formula = section.isString("formula")
+                    ? service.compile(compiler, section.getString("formula"), "mob_levels.regions." + name + ".formula")
+                    : null;
+            return new Region(section.getString("world", "world"),
+                    Math.min(from[0], to[0]), Math.min(from[1], to[1]),
+                    Math.max(from[0], to[0]), Math.max(from[1], to[1]),
+                    section.getInt("level", 1), formula);
+        }
+
+        private static double[] parseCorner(String corner) {
+            if (corner == null) {
+                return null;
+            }
+            String[] parts = corner.split(",");
+            if (parts.length != 2) {
+                return null;
+            }
+            try {
+                return new double[] {Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim())};
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        boolean contains(String worldName, double x, double z) {
+            return world.equals(worldName) && x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+        }
+    }
+}
@@ -8,8 +8,10 @@ import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.InventoryView;
 
 import com.sandcore.SandCore;
-import com.sandcore.data.PlayerData;
+import com.sandcore.classes.ClassDefinition;
+import com.sandcore.classes.ClassManager;
 import com.sandcore.data.PlayerDataManager;
+import com.sandcore.util.ColorUtils;
 
 public class ClassSelectionListener implements Listener {
 
@@ -40,16 +42,17 @@ public class ClassSelectionListener implements Listener {
                 return;
             }
 
-            // Update the player's data with the selected class only if not already set.
-            PlayerData data = playerDataManager.getPlayerData(player.getUniqueId());
-            if (data.getSelectedClass().equalsIgnoreCase(className)) {
-                // Already set to this class; avoid duplicate processing.
-                return;
+            // The class manager is the one record of a player's class; it saves the
+            // choice and fires the ClassChangeEvent, and ignores re-selecting the same class.
+            ClassManager classManager = plugin.getClassManager();
+            for (ClassDefinition definition : classManager.getAllClasses().values()) {
+                if (definition.getId().equalsIgnoreCase(className)
+                        || ChatColor.stripColor(ColorUtils.translate(definition.getDisplayName())).equalsIgnoreCase(className)) {
+                    classManager.setPlayerClass(player, definition.getId());
+                    player.closeInventory();
+                    return;
+                }
             }
-            data.setSelectedClass(className);
-            // Save the player data so that it persists.
-            playerDataManager.savePlayerData();
-            player.closeInventory();
         }
     }
 
@@ -88,7 +88,7 @@ public class ProfileGUIListener implements Listener {
 
     private String replacePlaceholders(String text, PlayerStats stats, String attribute) {
         String output = text.replace("{value}", String.format("%.1f", stats.getAttribute(attribute)))
-                           .replace("{allocated}", String.valueOf(stats.getAllocatedPoints().getOrDefault(attribute, 0)));
+                           .replace("{allocated}", String.valueOf(stats.getAllocated(attribute)));
         return ChatUtil.translateGradientsAndHex(output);
     }
 
@@ -96,7 +96,7 @@ public class ProfileGUIListener implements Listener {
         return lore.stream()
             .map(line -> ChatUtil.translateGradientsAndHex(
                 line.replace("{value}", String.format("%.1f", stats.getAttribute(attribute)))
-                   .replace("{allocated}", String.valueOf(stats.getAllocatedPoints().getOrDefault(attribute, 0)))
+                   .replace("{allocated}", String.valueOf(stats.getAllocated(attribute)))
             ))
             .collect(Collectors.toList());
     }
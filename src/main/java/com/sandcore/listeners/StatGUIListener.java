@@ -73,19 +73,19 @@ public class StatGUIListener implements Listener {
         // Add stats items (same as ProfileGUIListener implementation)
         ItemStack strength = new ItemBuilder(Material.RED_DYE)
             .name("§4Strength: §c" + stats.getAttribute("strength"))
-            .lore("§7Allocated: §c" + stats.getAllocatedPoints().getOrDefault("strength", 0))
+            .lore("§7Allocated: §c" + stats.getAllocated("strength"))
             .build();
         inv.setItem(10, strength);
 
         ItemStack dexterity = new ItemBuilder(Material.GREEN_DYE)
             .name("§2Dexterity: §a" + stats.getAttribute("dexterity"))
-            .lore("§7Allocated: §a" + stats.getAllocatedPoints().getOrDefault("dexterity", 0)) 
+            .lore("§7Allocated: §a" + stats.getAllocated("dexterity")) 
             .build();
         inv.setItem(12, dexterity);
 
         ItemStack intelligence = new ItemBuilder(Material.BLUE_DYE)
             .name("§9Intelligence: §b" + stats.getAttribute("intelligence"))
-            .lore("§7Allocated: §b" + stats.getAllocatedPoints().getOrDefault("intelligence", 0))
+            .lore("§7Allocated: §b" + stats.getAllocated("intelligence"))
             .build();
         inv.setItem(14, intelligence);
 
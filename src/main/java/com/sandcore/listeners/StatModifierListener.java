@@ -0,0 +1,252 @@
+package com.sandcore.listeners;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerItemHeldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerSwapHandItemsEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+import com.destroystokyo.paper.event.player.PlayerArmorChangeEvent;
+import com.sandcore.SandCore;
+import com.sandcore.classes.ClassDefinition;
+import com.sandcore.classes.ClassManager;
+import com.sandcore.events.ClassChangeEvent;
+import com.sandcore.items.CustomItem;
+import com.sandcore.items.ItemsManager;
+import com.sandcore.stat.StatManager;
+import com.sandcore.stat.StatModifier;
+
+/**
+ * StatModifierListener feeds equipped items and class passives into each player's
+ * modifier stack.
+ *
+ * Inventory events only mark the affected equipment slots as dirty. Once per tick
+ * the dirty slots are resolved to custom items and compared with what was applied
+ * last time; only slots whose item actually changed replace their modifier source
+ * ("equipment:&lt;slot&gt;"), so shuffling an inventory recomputes nothing.
+ */
+public class StatModifierListener implements Listener {
+    private static final EquipmentSlot[] SLOTS = {
+        EquipmentSlot.HAND, EquipmentSlot.OFF_HAND,
+        EquipmentSlot.HEAD, EquipmentSlot.CHEST, EquipmentSlot.LEGS, EquipmentSlot.FEET
+    };
+    private static final int ALL_SLOTS = (1 << SLOTS.length) - 1;
+    private static final String CLASS_SOURCE = "class";
+
+    private final ItemsManager itemsManager;
+    private final ClassManager classManager;
+    private final StatManager statManager;
+    private final Map<UUID, Equipment> equipment = new HashMap<>();
+
+    public StatModifierListener(SandCore plugin, ItemsManager itemsManager, ClassManager classManager, StatManager statManager) {
+        this.itemsManager = itemsManager;
+        this.classManager = classManager;
+        this.statManager = statManager;
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        Bukkit.getScheduler().runTaskTimer(plugin, this::flush, 1L, 1L);
+        refreshAll();
+    }
+
+    /**
+     * Re-reads every online player's equipment and class, e.g. after items or
+     * classes were reloaded and the applied definitions may be stale.
+     */
+    public void refreshAll() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            Equipment state = state(player);
+            state.dirtySlots = ALL_SLOTS;
+            state.classDirty = true;
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        Equipment state = state(event.getPlayer());
+        state.dirtySlots = ALL_SLOTS;
+        state.classDirty = true;
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        equipment.remove(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemHeld(PlayerItemHeldEvent event) {
+        markDirty(event.getPlayer(), EquipmentSlot.HAND);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSwapHands(PlayerSwapHandItemsEvent event) {
+        markDirty(event.getPlayer(), EquipmentSlot.HAND);
+        markDirty(event.getPlayer(), EquipmentSlot.OFF_HAND);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onArmorChange(PlayerArmorChangeEvent event) {
+        switch (event.getSlotType()) {
+            case HEAD:
+                markDirty(event.getPlayer(), EquipmentSlot.HEAD);
+                break;
+            case CHEST:
+                markDirty(event.getPlayer(), EquipmentSlot.CHEST);
+                break;
+            case LEGS:
+                markDirty(event.getPlayer(), EquipmentSlot.LEGS);
+                break;
+            case FEET:
+                markDirty(event.getPlayer(), EquipmentSlot.FEET);
+                break;
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryClick(InventoryClickEvent event) {
+        if (event.getWhoClicked() instanceof Player) {
+            state((Player) event.getWhoClicked()).dirtySlots = ALL_SLOTS;
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryDrag(InventoryDragEvent event) {
+        if (event.getWhoClicked() instanceof Player) {
+            state((Player) event.getWhoClicked()).dirtySlots = ALL_SLOTS;
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDrop(PlayerDropItemEvent event) {
+        markDirty(event.getPlayer(), EquipmentSlot.HAND);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPickup(EntityPickupItemEvent event) {
+        if (event.getEntity() instanceof Player) {
+            markDirty((Player) event.getEntity(), EquipmentSlot.HAND);
+            markDirty((Player) event.getEntity(), EquipmentSlot.OFF_HAND);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onClassChange(ClassChangeEvent event) {
+        state(event.getPlayer()).classDirty = true;
+    }
+
+    private void markDirty(Player player, EquipmentSlot slot) {
+        state(player).dirtySlots |= 1 << indexOf(slot);
+    }
+
+    private Equipment state(Player player) {
+        return equipment.computeIfAbsent(player.getUniqueId(), uuid -> new Equipment());
+    }
+
+    /**
+     * Applies the pending equipment and class changes of all players.
+     */
+    private void flush() {
+        for (Map.Entry<UUID, Equipment> entry : equipment.entrySet()) {
+            Equipment state = entry.getValue();
+            if (state.dirtySlots == 0 && !state.classDirty) {
+                continue;
+            }
+            Player player = Bukkit.getPlayer(entry.getKey());
+            if (player == null) {
+                continue;
+            }
+            StatManager.PlayerStats stats = statManager.getPlayerStats(player);
+            if (state.dirtySlots != 0) {
+                PlayerInventory inventory = player.getInventory();
+                for (int i = 0; i < SLOTS.length; i++) {
+                    if ((state.dirtySlots & (1 << i)) == 0) {
+                        continue;
+                    }
+                    CustomItem item = resolve(inventory.getItem(SLOTS[i]), SLOTS[i]);
+                    if (item == state.items[i]) {
+                        continue;
+                    }
+                    state.items[i] = item;
+                    List<StatModifier> modifiers = item != null ? item.getStatModifiers() : Collections.emptyList();
+                    stats.setModifiers("equipment:" + SLOTS[i].name().toLowerCase(), modifiers);
+                }
+                state.dirtySlots = 0;
+            }
+            if (state.classDirty) {
+                ClassDefinition definition = classManager.getClassDefinition(classManager.getPlayerClass(player.getUniqueId()));
+                stats.setModifiers(CLASS_SOURCE, definition != null ? definition.getPassives() : Collections.emptyList());
+                state.classDirty = false;
+            }
+        }
+    }
+
+    /**
+     * Returns the custom item in an equipment slot, or null if the stack is not a
+     * custom item or the item is not meant to be used from that slot.
+     */
+    private CustomItem resolve(ItemStack stack, EquipmentSlot slot) {
+        if (stack == null || stack.getType().isAir()) {
+            return null;
+        }
+        CustomItem item = itemsManager.getItemFromStack(stack);
+        if (item == null || !item.isValid() || slotFor(item.getSlot()) != slot) {
+            return null;
+        }
+        return item;
+    }
+
+    private static EquipmentSlot slotFor(String configured) {
+        switch (configured.toLowerCase()) {
+            case "mainhand":
+            case "hand":
+                return EquipmentSlot.HAND;
+            case "offhand":
+                return EquipmentSlot.OFF_HAND;
+            case "head":
+            case "helmet":
+                return EquipmentSlot.HEAD;
+            case "chest":
+            case "chestplate":
+                return EquipmentSlot.CHEST;
+            case "legs":
+            case "leggings":
+                return EquipmentSlot.LEGS;
+            case "feet":
+            case "boots":
+                return EquipmentSlot.FEET;
+            default:
+                return null;
+        }
+    }
+
+    private static int indexOf(EquipmentSlot slot) {
+        for (int i = 0; i < SLOTS.length; i++) {
+            if (SLOTS[i] == slot) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static final class Equipment {
+        // The custom item whose modifiers are currently applied, per SLOTS index.
+        final CustomItem[] items = new CustomItem[SLOTS.length];
+        int dirtySlots;
+        boolean classDirty;
+    }
+}
@@ -2,6 +2,7 @@ package com.sandcore.listeners;
 
 import java.util.logging.Logger;
 
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
@@ -11,8 +12,10 @@ import org.bukkit.event.entity.EntityDeathEvent;
 
 import com.sandcore.data.PlayerData;
 import com.sandcore.data.PlayerDataManager;
+import com.sandcore.events.LevelChangeEvent;
 import com.sandcore.hud.HUDManager;
 import com.sandcore.levels.LevelManager;
+import com.sandcore.levels.MobLevelService;
 import com.sandcore.levels.XPSourceManager;
 
 /**
@@ -20,20 +23,24 @@ import com.sandcore.levels.XPSourceManager;
  * It listens for mob death events, retrieves the XP value from xp-sources.yml,
  * adds that XP to the player's persistent data, updates the player's HUD,
  * and logs the XP award and any level up.
+ * When mob levels are enabled, the XP is scaled by the level of the killed mob.
  */
 public class XPListener implements Listener {
     private final XPSourceManager xpSourceManager;
     private final PlayerDataManager playerDataManager;
     private final LevelManager levelManager;
     private final HUDManager hudManager;
+    private final MobLevelService mobLevelService; // null if mob levels are disabled
     private final Logger logger;
     
     public XPListener(XPSourceManager xpSourceManager, PlayerDataManager playerDataManager,
-                      LevelManager levelManager, HUDManager hudManager, Logger logger) {
+                      LevelManager levelManager, HUDManager hudManager,
+                      MobLevelService mobLevelService, Logger logger) {
         this.xpSourceManager = xpSourceManager;
         this.playerDataManager = playerDataManager;
         this.levelManager = levelManager;
         this.hudManager = hudManager;
+        this.mobLevelService = mobLevelService;
         this.logger = logger;
     }
     
@@ -46,8 +53,12 @@ public class XPListener implements Listener {
             if (killer != null) {
                 String mobType = entity.getType().name();
                 int xpAward = xpSourceManager.getXPForMob(mobType);
+                if (xpAward > 0 && mobLevelService != null) {
+                    xpAward = mobLevelService.scaleXP(xpAward, entity);
+                }
                 if (xpAward > 0) {
                     PlayerData data = playerDataManager.getPlayerData(killer.getUniqueId());
+                    int oldLevel = data.getLevel();
                     boolean leveledUp = data.addXP(xpAward, levelManager);
                     logger.info("Awarded " + xpAward + " XP to " + killer.getName() +
                             " for killing " + mobType + ". Total XP: " + data.getXP() + ", Level: " + data.getLevel());
@@ -55,6 +66,7 @@ public class XPListener implements Listener {
                     if (leveledUp) {
                         killer.sendMessage("§aCongratulations! You've reached level " + data.getLevel() + "!");
                         logger.info(killer.getName() + " leveled up to level " + data.getLevel());
+                        Bukkit.getPluginManager().callEvent(new LevelChangeEvent(killer, oldLevel, data.getLevel()));
                     }
                 }
             }
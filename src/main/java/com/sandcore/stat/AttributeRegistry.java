@@ -0,0 +1,62 @@
+package com.sandcore.stat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * AttributeRegistry assigns every attribute name a dense slot index so that
+ * compiled formulas can read their variables straight out of a double[].
+ *
+ * Primary, extra and secondary attributes from config.yml are registered first,
+ * and formulas may only reference those. Other names (e.g. a typo in an item
+ * modifier) are registered on demand; nothing computed reads them.
+ *
+ * Registration happens on the main thread, but lookups may come from async
+ * readers of {@link StatSnapshot}, so both views are safe to read concurrently.
+ */
+public class AttributeRegistry {
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private final List<String> names = new CopyOnWriteArrayList<>();
+
+    /**
+     * Returns the slot for the given attribute, registering it if it is new.
+     */
+    public synchronized int register(String name) {
+        Integer slot = slots.get(name);
+        if (slot != null) {
+            return slot;
+        }
+        int index = names.size();
+        // Publish the name before the slot, so a reader that finds the slot can resolve it.
+        names.add(name);
+        slots.put(name, index);
+        return index;
+    }
+
+    /**
+     * Returns the slot for the given attribute, or -1 if it is not registered.
+     */
+    public int slotOf(String name) {
+        Integer slot = slots.get(name);
+        return slot != null ? slot : -1;
+    }
+
+    public String nameOf(int slot) {
+        return names.get(slot);
+    }
+
+    public boolean contains(String name) {
+        return slots.containsKey(name);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public List<String> getNames() {
+        return Collections.unmodifiableList(names);
+    }
+}
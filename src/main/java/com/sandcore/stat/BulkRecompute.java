@@ -0,0 +1,37 @@
+package com.sandcore.stat;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join task that evaluates a {@link StatGraph} for many players at once.
+ *
+ * Inputs and outputs are laid out as struct-of-arrays ({@code columns[slot][row]},
+ * one row per player) so each worker streams through contiguous columns. The
+ * row range is split in half until it is small enough to evaluate directly.
+ */
+class BulkRecompute extends RecursiveAction {
+    private static final int ROWS_PER_TASK = 64;
+
+    private final StatGraph graph;
+    private final StatColumns input;
+    private final int from;
+    private final int to;
+
+    BulkRecompute(StatGraph graph, StatColumns input, int from, int to) {
+        this.graph = graph;
+        this.input = input;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= ROWS_PER_TASK) {
+            graph.recomputeColumns(input, from, to);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        invokeAll(new BulkRecompute(graph, input, from, mid),
+                  new BulkRecompute(graph, input, mid, to));
+    }
+}
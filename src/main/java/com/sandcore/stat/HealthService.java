@@ -0,0 +1,235 @@
+package com.sandcore.stat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.attribute.Attribute;
+import org.bukkit.attribute.AttributeInstance;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.EntityRegainHealthEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import com.sandcore.SandCore;
+import com.sandcore.events.StatsChangeEvent;
+
+/**
+ * HealthService drives players' max health and health regeneration from their stats.
+ *
+ * Regeneration is never ticked. Each player only remembers when their health was
+ * last settled and when they last took damage; whenever the health is observed
+ * (before damage or a heal is applied, when {@link #getHealth(Player)} is called
+ * for display, and on a low-frequency sync) the regen accumulated since then is
+ * applied in one step. Max health is pushed to the vanilla attribute only when
+ * the computed stat changes. A player who just joined has no stats yet; their
+ * max health arrives with the first StatsChangeEvent, at the end of that tick.
+ *
+ * Configuration (config.yml):
+ * - health.enabled: whether the service runs at all (default: true)
+ * - health.max_attribute: stat pushed to the max health attribute (default: max_health)
+ * - health.regen_attribute: stat giving health regenerated per second (default: health_regen)
+ * - health.regen_delay: seconds after taking damage before regen resumes (default: 5)
+ * - health.sync_interval: ticks between settling every online player (default: 100)
+ * - health.display_scale: health shown as this many half-hearts; 0 leaves the client's health scale alone (default: 0)
+ */
+public class HealthService implements Listener {
+    // Vanilla clamps generic.max_health to this range.
+    private static final double MIN_MAX_HEALTH = 1.0;
+    private static final double MAX_MAX_HEALTH = 1024.0;
+
+    private final SandCore plugin;
+    private final StatManager statManager;
+    private final Map<UUID, HealthState> states = new HashMap<>();
+    private BukkitTask syncTask;
+
+    private String maxAttribute;
+    private String regenAttribute;
+    private long regenDelayNanos;
+    private double displayScale;
+
+    public HealthService(SandCore plugin, StatManager statManager) {
+        this.plugin = plugin;
+        this.statManager = statManager;
+        loadConfiguration();
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            track(player);
+        }
+    }
+
+    public void loadConfiguration() {
+        maxAttribute = plugin.getConfig().getString("health.max_attribute", "max_health");
+        regenAttribute = plugin.getConfig().getString("health.regen_attribute", "health_regen");
+        regenDelayNanos = (long) (plugin.getConfig().getDouble("health.regen_delay", 5.0) * 1_000_000_000L);
+        double previousScale = displayScale;
+        displayScale = Math.max(0.0, plugin.getConfig().getDouble("health.display_scale", 0.0));
+        long interval = Math.max(1L, plugin.getConfig().getLong("health.sync_interval", 100L));
+
+        if (syncTask != null) {
+            syncTask.cancel();
+        }
+        syncTask = Bukkit.getScheduler().runTaskTimer(plugin, this::settleAll, interval, interval);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (displayScale > 0.0) {
+                applyDisplayScale(player);
+            } else if (previousScale > 0.0) {
+                // Turned off by a reload: undo the scale this service set.
+                player.setHealthScaled(false);
+            }
+        }
+    }
+
+    /**
+     * Settles the player's regen and returns their current health. Use this
+     * instead of {@link Player#getHealth()} when displaying health.
+     */
+    public double getHealth(Player player) {
+        settle(player);
+        return player.getHealth();
+    }
+
+    /**
+     * Applies the regen accumulated since the player's health was last settled.
+     */
+    public void settle(Player player) {
+        HealthState state = states.get(player.getUniqueId());
+        if (state == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long from = Math.max(state.settledAt, state.damagedAt + regenDelayNanos);
+        state.settledAt = now;
+        if (now <= from || player.isDead()) {
+            return;
+        }
+        StatSnapshot snapshot = statManager.getSnapshot(player.getUniqueId());
+        double regen = snapshot != null ? snapshot.get(regenAttribute) : 0.0;
+        if (regen <= 0.0) {
+            return;
+        }
+        double max = player.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue();
+        double health = player.getHealth();
+        if (health < max) {
+            player.setHealth(Math.min(max, health + regen * (now - from) / 1_000_000_000.0));
+        }
+    }
+
+    private void settleAll() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            settle(player);
+        }
+    }
+
+    private void track(Player player) {
+        long now = System.nanoTime();
+        HealthState state = new HealthState();
+        state.settledAt = now;
+        state.damagedAt = now - regenDelayNanos;
+        states.put(player.getUniqueId(), state);
+        applyDisplayScale(player);
+        // On join the stats are not loaded yet; the StatsChangeEvent of their first
+        // snapshot (at the end of the tick) pushes max health.
+        StatSnapshot snapshot = statManager.getSnapshot(player.getUniqueId());
+        if (snapshot != null) {
+            pushMaxHealth(player, state, snapshot);
+        }
+    }
+
+    private void pushMaxHealth(Player player, HealthState state, StatSnapshot snapshot) {
+        double max = snapshot.get(maxAttribute);
+        if (max <= 0.0) {
+            return; // Not configured; leave vanilla max health alone.
+        }
+        max = Math.max(MIN_MAX_HEALTH, Math.min(MAX_MAX_HEALTH, max));
+        if (max == state.pushedMax) {
+            return;
+        }
+        AttributeInstance attribute = player.getAttribute(Attribute.GENERIC_MAX_HEALTH);
+        if (attribute == null) {
+            return;
+        }
+        attribute.setBaseValue(max);
+        state.pushedMax = max;
+        if (player.getHealth() > attribute.getValue()) {
+            player.setHealth(attribute.getValue());
+        }
+    }
+
+    /**
+     * Scales the player's hearts if health.display_scale is set; otherwise leaves
+     * whatever scale the server or another plugin uses untouched.
+     */
+    private void applyDisplayScale(Player player) {
+        if (displayScale > 0.0) {
+            player.setHealthScale(displayScale);
+            player.setHealthScaled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onStatsChange(StatsChangeEvent event) {
+        HealthState state = states.get(event.getPlayer().getUniqueId());
+        if (state != null) {
+            // Settle at the old max before it changes.
+            settle(event.getPlayer());
+            pushMaxHealth(event.getPlayer(), state, event.getCurrent());
+        }
+    }
+
+    // Before the damage is applied, so it is taken from the regenerated health.
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onDamage(EntityDamageEvent event) {
+        if (event.getEntity() instanceof Player) {
+            settle((Player) event.getEntity());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDamaged(EntityDamageEvent event) {
+        if (event.getEntity() instanceof Player) {
+            HealthState state = states.get(event.getEntity().getUniqueId());
+            if (state != null) {
+                state.damagedAt = System.nanoTime();
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onRegain(EntityRegainHealthEvent event) {
+        if (event.getEntity() instanceof Player) {
+            settle((Player) event.getEntity());
+        }
+    }
+
+    @EventHandler
+    public void onRespawn(PlayerRespawnEvent event) {
+        HealthState state = states.get(event.getPlayer().getUniqueId());
+        if (state != null) {
+            state.settledAt = System.nanoTime();
+        }
+    }
+
+    @EventHandler
+    public void onJoin(PlayerJoinEvent event) {
+        track(event.getPlayer());
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        states.remove(event.getPlayer().getUniqueId());
+    }
+
+    private static final class HealthState {
+        long settledAt;
+        long damagedAt;
+        double pushedMax = Double.NaN;
+    }
+}
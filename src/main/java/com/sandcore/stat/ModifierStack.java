@@ -0,0 +1,199 @@
+package com.sandcore.stat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ModifierStack holds one player's named modifier sources (equipment slots, buffs,
+ * class passives) and keeps running per-attribute totals of their contributions.
+ *
+ * Replacing a source only subtracts the old source's modifiers and adds the new
+ * ones, so equipping an item touches just that item's attributes. Removing a
+ * multiplier recomputes that attribute's product from the remaining modifiers
+ * rather than dividing it out, so repeated swaps cannot drift.
+ */
+class ModifierStack {
+    private final Map<String, List<StatModifier>> sources = new LinkedHashMap<>();
+    private AttributeRegistry registry;
+    // Running totals indexed by registry slot.
+    private double[] flat = new double[0];
+    private double[] percent = new double[0];
+    private double[] factor = new double[0]; // product of all non-zero factors
+    private int[] zeroFactors = new int[0];  // kept apart so a x0 modifier can be removed again
+
+    /**
+     * Resolves every modifier against a (new) registry and rebuilds the totals.
+     * Attribute names the registry does not know yet are registered.
+     */
+    void rebind(AttributeRegistry newRegistry) {
+        this.registry = newRegistry;
+        for (List<StatModifier> modifiers : sources.values()) {
+            for (StatModifier modifier : modifiers) {
+                newRegistry.register(modifier.getAttribute());
+            }
+        }
+        flat = new double[0];
+        percent = new double[0];
+        factor = new double[0];
+        zeroFactors = new int[0];
+        ensureCapacity();
+        for (List<StatModifier> modifiers : sources.values()) {
+            for (StatModifier modifier : modifiers) {
+                accumulate(modifier, 1);
+            }
+        }
+    }
+
+    /**
+     * Replaces (or with an empty collection, removes) a source.
+     *
+     * @return the slots whose totals changed; empty if the source's modifiers are
+     *         equal to the ones it already had (e.g. an item re-read after a reload).
+     */
+    int[] replace(String source, Collection<StatModifier> modifiers) {
+        List<StatModifier> current = sources.get(source);
+        if (current != null && modifiers != null && current.equals(new ArrayList<>(modifiers))) {
+            return new int[0];
+        }
+        List<StatModifier> previous = modifiers == null || modifiers.isEmpty()
+                ? sources.remove(source)
+                : sources.put(source, new ArrayList<>(modifiers));
+        if (modifiers != null) {
+            for (StatModifier modifier : modifiers) {
+                registry.register(modifier.getAttribute());
+            }
+        }
+        ensureCapacity();
+
+        Set<Integer> touched = new LinkedHashSet<>();
+        Set<Integer> removedFactors = new LinkedHashSet<>();
+        if (previous != null) {
+            for (StatModifier modifier : previous) {
+                int slot = accumulate(modifier, -1);
+                touched.add(slot);
+                if (modifier.getOperation() == StatModifier.Operation.MULTIPLY && modifier.getValue() != 0) {
+                    removedFactors.add(slot);
+                }
+            }
+        }
+        if (modifiers != null) {
+            for (StatModifier modifier : modifiers) {
+                touched.add(accumulate(modifier, 1));
+            }
+        }
+        for (int slot : removedFactors) {
+            recomputeFactor(slot);
+        }
+        return touched.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    boolean hasSource(String source) {
+        return sources.containsKey(source);
+    }
+
+    boolean isEmpty() {
+        return sources.isEmpty();
+    }
+
+    /**
+     * Applies the totals for a slot to its unmodified value.
+     */
+    double apply(int slot, double raw) {
+        if (slot >= flat.length) {
+            return raw;
+        }
+        double multiplier = zeroFactors[slot] > 0 ? 0.0 : factor[slot];
+        return (raw + flat[slot]) * (1 + percent[slot] / 100.0) * multiplier;
+    }
+
+    /**
+     * @return every slot that currently has at least one modifier.
+     */
+    int[] modifiedSlots() {
+        Set<Integer> slots = new LinkedHashSet<>();
+        for (List<StatModifier> modifiers : sources.values()) {
+            for (StatModifier modifier : modifiers) {
+                slots.add(registry.slotOf(modifier.getAttribute()));
+            }
+        }
+        return slots.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Writes this stack's totals into row {@code row} of bulk recompute input,
+     * resolving attribute names against the target registry. The target registry
+     * must already contain every modified attribute (see {@link #registerNames}).
+     */
+    void export(AttributeRegistry target, StatColumns columns, int row) {
+        for (List<StatModifier> modifiers : sources.values()) {
+            for (StatModifier modifier : modifiers) {
+                columns.addModifier(target.slotOf(modifier.getAttribute()), row, modifier);
+            }
+        }
+    }
+
+    void registerNames(AttributeRegistry target) {
+        for (List<StatModifier> modifiers : sources.values()) {
+            for (StatModifier modifier : modifiers) {
+                target.register(modifier.getAttribute());
+            }
+        }
+    }
+
+    private int accumulate(StatModifier modifier, int sign) {
+        int slot = registry.slotOf(modifier.getAttribute());
+        double value = modifier.getValue();
+        switch (modifier.getOperation()) {
+            case FLAT:
+                flat[slot] += sign * value;
+                break;
+            case PERCENT:
+                percent[slot] += sign * value;
+                break;
+            case MULTIPLY:
+                if (value == 0) {
+                    zeroFactors[slot] += sign;
+                } else if (sign > 0) {
+                    factor[slot] *= value;
+                }
+                // Removals are handled by recomputeFactor.
+                break;
+        }
+        return slot;
+    }
+
+    /**
+     * Rebuilds a slot's factor from the non-zero multipliers of the current sources.
+     */
+    private void recomputeFactor(int slot) {
+        double product = 1.0;
+        for (List<StatModifier> modifiers : sources.values()) {
+            for (StatModifier modifier : modifiers) {
+                if (modifier.getOperation() == StatModifier.Operation.MULTIPLY && modifier.getValue() != 0
+                        && registry.slotOf(modifier.getAttribute()) == slot) {
+                    product *= modifier.getValue();
+                }
+            }
+        }
+        factor[slot] = product;
+    }
+
+    private void ensureCapacity() {
+        int size = registry.size();
+        if (flat.length >= size) {
+            return;
+        }
+        int oldSize = factor.length;
+        flat = Arrays.copyOf(flat, size);
+        percent = Arrays.copyOf(percent, size);
+        zeroFactors = Arrays.copyOf(zeroFactors, size);
+        factor = Arrays.copyOf(factor, size);
+        Arrays.fill(factor, oldSize, size, 1.0);
+    }
+}
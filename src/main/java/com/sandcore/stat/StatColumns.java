@@ -0,0 +1,90 @@
+package com.sandcore.stat;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays input and output of a bulk stat recompute: one column per
+ * attribute slot, one row per player. Optional columns (allocations and modifier
+ * totals) stay null when no player has a value for that slot.
+ */
+final class StatColumns {
+    final int rows;
+    final double[][] values;
+    final int[] levels;
+    final int[][] allocated;
+    final double[][] flat;
+    final double[][] percent;
+    final double[][] factor;
+
+    StatColumns(int slots, int rows) {
+        this.rows = rows;
+        this.values = new double[slots][rows];
+        this.levels = new int[rows];
+        this.allocated = new int[slots][];
+        this.flat = new double[slots][];
+        this.percent = new double[slots][];
+        this.factor = new double[slots][];
+    }
+
+    void setAllocated(int slot, int row, int points) {
+        if (allocated[slot] == null) {
+            allocated[slot] = new int[rows];
+        }
+        allocated[slot][row] = points;
+    }
+
+    void addModifier(int slot, int row, StatModifier modifier) {
+        switch (modifier.getOperation()) {
+            case FLAT:
+                if (flat[slot] == null) {
+                    flat[slot] = new double[rows];
+                }
+                flat[slot][row] += modifier.getValue();
+                break;
+            case PERCENT:
+                if (percent[slot] == null) {
+                    percent[slot] = new double[rows];
+                }
+                percent[slot][row] += modifier.getValue();
+                break;
+            case MULTIPLY:
+                if (factor[slot] == null) {
+                    factor[slot] = new double[rows];
+                    Arrays.fill(factor[slot], 1.0);
+                }
+                factor[slot][row] *= modifier.getValue();
+                break;
+        }
+    }
+
+    /**
+     * Applies the modifier totals of a slot and row to its unmodified value.
+     */
+    double apply(int slot, int row, double raw) {
+        double value = raw;
+        if (flat[slot] != null) {
+            value += flat[slot][row];
+        }
+        if (percent[slot] != null) {
+            value *= 1 + percent[slot][row] / 100.0;
+        }
+        if (factor[slot] != null) {
+            value *= factor[slot][row];
+        }
+        return value;
+    }
+
+    /**
+     * Fills slots that no formula computes (e.g. physical_pen) from their modifiers alone.
+     */
+    void fillUncomputed(StatGraph graph) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (graph.isComputed(slot) || (flat[slot] == null && percent[slot] == null && factor[slot] == null)) {
+                continue;
+            }
+            for (int row = 0; row < rows; row++) {
+                values[slot][row] = apply(slot, row, 0.0);
+            }
+        }
+    }
+}
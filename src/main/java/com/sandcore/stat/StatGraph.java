@@ -0,0 +1,417 @@
+package com.sandcore.stat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import com.sandcore.stat.formula.Formula;
+import com.sandcore.stat.formula.FormulaCompiler;
+import com.sandcore.stat.formula.FormulaException;
+
+/**
+ * StatGraph is the dependency graph of all computed attributes for one config load.
+ *
+ * Computed attributes are laid out in evaluation order: primaries first (they only
+ * depend on level and allocated points), then secondaries in topological order of
+ * the attributes their formulas reference. For every attribute slot the graph
+ * precomputes the set of computed attributes that must be re-evaluated when that
+ * slot changes, as a bitset over evaluation order, so invalidation is a handful of
+ * OR operations and recomputation is an ordered walk over the set bits.
+ */
+public class StatGraph {
+
+    static final class Primary {
+        final String name;
+        final double base;
+        final double perLevel;
+
+        Primary(String name, double base, double perLevel) {
+            this.name = name;
+            this.base = base;
+            this.perLevel = perLevel;
+        }
+    }
+
+    static final class Secondary {
+        final String name;
+        final Formula formula; // null if the configured formula failed to compile
+
+        Secondary(String name, Formula formula) {
+            this.name = name;
+            this.formula = formula;
+        }
+    }
+
+    private final AttributeRegistry registry;
+    private final int primaryCount;
+    // Per evaluation-order index:
+    private final String[] names;
+    private final int[] slots;
+    private final double[] base;
+    private final double[] perLevel;
+    private final Formula[] formulas;
+    // Per registry slot: evaluation-order indices affected by a change to that slot.
+    private final long[][] affected;
+    private final boolean[] computed;
+    private final long[] levelMask;
+    private final long[] allMask;
+    private final long[] empty;
+
+    StatGraph(AttributeRegistry registry, List<Primary> primaries, List<Secondary> secondaries, Logger logger) {
+        this.registry = registry;
+        List<Secondary> ordered = sortSecondaries(registry, secondaries, logger);
+        int count = primaries.size() + ordered.size();
+        this.primaryCount = primaries.size();
+        this.names = new String[count];
+        this.slots = new int[count];
+        this.base = new double[count];
+        this.perLevel = new double[count];
+        this.formulas = new Formula[count];
+
+        int index = 0;
+        for (Primary primary : primaries) {
+            names[index] = primary.name;
+            slots[index] = registry.slotOf(primary.name);
+            base[index] = primary.base;
+            perLevel[index] = primary.perLevel;
+            index++;
+        }
+        for (Secondary secondary : ordered) {
+            names[index] = secondary.name;
+            slots[index] = registry.slotOf(secondary.name);
+            formulas[index] = secondary.formula;
+            index++;
+        }
+
+        int words = (count + 63) >>> 6;
+        this.empty = new long[words];
+        this.allMask = new long[words];
+        for (int i = 0; i < count; i++) {
+            setBit(allMask, i);
+        }
+
+        // Reverse edges: slot -> evaluation-order indices whose formula reads it.
+        int slotCount = registry.size();
+        List<List<Integer>> readers = new ArrayList<>(slotCount);
+        for (int s = 0; s < slotCount; s++) {
+            readers.add(new ArrayList<>());
+        }
+        int[] orderOfSlot = new int[slotCount];
+        Arrays.fill(orderOfSlot, -1);
+        this.computed = new boolean[slotCount];
+        for (int i = 0; i < count; i++) {
+            orderOfSlot[slots[i]] = i;
+            computed[slots[i]] = true;
+            if (formulas[i] != null) {
+                for (int variable : formulas[i].getVariables()) {
+                    readers.get(variable).add(i);
+                }
+            }
+        }
+
+        this.affected = new long[slotCount][];
+        for (int s = 0; s < slotCount; s++) {
+            long[] mask = new long[words];
+            Deque<Integer> pending = new ArrayDeque<>();
+            pending.push(s);
+            while (!pending.isEmpty()) {
+                int current = pending.pop();
+                for (int reader : readers.get(current)) {
+                    if (!testBit(mask, reader)) {
+                        setBit(mask, reader);
+                        pending.push(slots[reader]);
+                    }
+                }
+            }
+            if (orderOfSlot[s] >= 0) {
+                setBit(mask, orderOfSlot[s]);
+            }
+            affected[s] = mask;
+        }
+
+        this.levelMask = new long[words];
+        for (int i = 0; i < primaryCount; i++) {
+            if (perLevel[i] != 0) {
+                or(levelMask, affected[slots[i]]);
+            }
+        }
+    }
+
+    /**
+     * Compiles the graph from an "attributes" config section (primary, extra and
+     * secondary). Invalid formulas, including ones that reference an attribute
+     * not declared there, are reported to the logger and evaluate to 0.
+     * Does not depend on the plugin, so it can be built from any config.
+     *
+     * @param attributes the "attributes" section; may be null.
+     */
+    public static StatGraph compile(ConfigurationSection attributes, Logger logger) {
+        AttributeRegistry registry = new AttributeRegistry();
+        FormulaCompiler compiler = new FormulaCompiler(registry);
+        List<Primary> primaries = new ArrayList<>();
+        List<Secondary> secondaries = new ArrayList<>();
+
+        ConfigurationSection primary = attributes != null ? attributes.getConfigurationSection("primary") : null;
+        if (primary != null) {
+            for (String attr : primary.getKeys(false)) {
+                registry.register(attr);
+                primaries.add(new Primary(attr, primary.getDouble(attr + ".base"), primary.getDouble(attr + ".per-level")));
+            }
+        }
+
+        // Attributes only items and effects provide (e.g. physical_pen), so formulas may read them.
+        if (attributes != null) {
+            for (String attr : attributes.getStringList("extra")) {
+                registry.register(attr);
+            }
+        }
+
+        ConfigurationSection secondary = attributes != null ? attributes.getConfigurationSection("secondary") : null;
+        if (secondary != null) {
+            // Register every secondary before compiling so slots follow config order.
+            for (String key : secondary.getKeys(false)) {
+                registry.register(key);
+            }
+            for (String key : secondary.getKeys(false)) {
+                String source = secondary.getString(key + ".formula");
+                Formula formula = null;
+                try {
+                    formula = compiler.compile(source);
+                } catch (FormulaException e) {
+                    logger.severe("Invalid formula for attributes.secondary." + key + ": " + e.getMessage());
+                }
+                secondaries.add(new Secondary(key, formula));
+            }
+        }
+
+        logger.info("Compiled " + secondaries.size() + " attribute formulas over " + registry.size() + " attributes.");
+        return new StatGraph(registry, primaries, secondaries, logger);
+    }
+
+    /**
+     * Orders secondaries so every formula runs after the secondaries it reads.
+     * Attributes caught in a cycle are reported and appended in config order.
+     */
+    private static List<Secondary> sortSecondaries(AttributeRegistry registry, List<Secondary> secondaries, Logger logger) {
+        int n = secondaries.size();
+        int[] indexOfSlot = new int[registry.size()];
+        Arrays.fill(indexOfSlot, -1);
+        for (int i = 0; i < n; i++) {
+            indexOfSlot[registry.slotOf(secondaries.get(i).name)] = i;
+        }
+
+        int[] inDegree = new int[n];
+        List<List<Integer>> dependents = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            dependents.add(new ArrayList<>());
+        }
+        for (int i = 0; i < n; i++) {
+            Formula formula = secondaries.get(i).formula;
+            if (formula == null) {
+                continue;
+            }
+            for (int variable : formula.getVariables()) {
+                int dependency = indexOfSlot[variable];
+                if (dependency == i) {
+                    inDegree[i]++; // self reference can never be satisfied
+                } else if (dependency >= 0) {
+                    dependents.get(dependency).add(i);
+                    inDegree[i]++;
+                }
+            }
+        }
+
+        List<Secondary> ordered = new ArrayList<>(n);
+        boolean[] placed = new boolean[n];
+        Deque<Integer> ready = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            if (inDegree[i] == 0) {
+                ready.add(i);
+            }
+        }
+        while (!ready.isEmpty()) {
+            int i = ready.poll();
+            placed[i] = true;
+            ordered.add(secondaries.get(i));
+            for (int dependent : dependents.get(i)) {
+                if (--inDegree[dependent] == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (ordered.size() < n) {
+            List<String> cyclic = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                if (!placed[i]) {
+                    cyclic.add(secondaries.get(i).name);
+                    ordered.add(secondaries.get(i));
+                }
+            }
+            logger.severe("Circular references between secondary attributes " + cyclic
+                    + "; they will be evaluated in config order and may read stale values.");
+        }
+        return ordered;
+    }
+
+    /**
+     * Evaluates the computed attributes whose bits are set in {@code dirty}, in
+     * dependency order, writing results into {@code values}. Clears {@code dirty}.
+     * Each result has the player's modifiers applied before dependents read it.
+     *
+     * @param values attribute values indexed by registry slot.
+     * @param level the player's level.
+     * @param allocated allocated points indexed by registry slot.
+     * @param modifiers the player's modifier totals.
+     */
+    void recompute(long[] dirty, double[] values, int level, int[] allocated, ModifierStack modifiers) {
+        for (int word = 0; word < dirty.length; word++) {
+            long bits = dirty[word];
+            while (bits != 0) {
+                int i = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int slot = slots[i];
+                double value;
+                if (i < primaryCount) {
+                    value = base[i] + (level * perLevel[i]) + (slot < allocated.length ? allocated[slot] : 0);
+                } else {
+                    value = formulas[i] != null ? formulas[i].evaluate(values) : 0.0;
+                    if (!Double.isFinite(value)) {
+                        value = 0.0;
+                    }
+                }
+                values[slot] = modifiers.apply(slot, value);
+            }
+            dirty[word] = 0L;
+        }
+    }
+
+    /**
+     * Evaluates every computed attribute for rows {@code [from, to)} of
+     * struct-of-arrays input. Each attribute is evaluated for the whole row range
+     * before moving on, so every pass streams through a few contiguous columns.
+     * Computed value columns are overwritten.
+     */
+    void recomputeColumns(StatColumns input, int from, int to) {
+        double[][] columns = input.values;
+        for (int i = 0; i < names.length; i++) {
+            int slot = slots[i];
+            double[] target = columns[slot];
+            if (i < primaryCount) {
+                int[] points = slot < input.allocated.length ? input.allocated[slot] : null;
+                for (int row = from; row < to; row++) {
+                    double value = base[i] + (input.levels[row] * perLevel[i]) + (points != null ? points[row] : 0);
+                    target[row] = input.apply(slot, row, value);
+                }
+            } else {
+                Formula formula = formulas[i];
+                for (int row = from; row < to; row++) {
+                    double value = formula != null ? formula.evaluate(columns, row) : 0.0;
+                    target[row] = input.apply(slot, row, Double.isFinite(value) ? value : 0.0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes every attribute of a character that exists outside any player,
+     * e.g. a simulated attacker. Modifiers on attributes the registry does not
+     * know yet register them, so call this before sizing other value arrays.
+     *
+     * @param allocated allocated points by attribute name; may be empty.
+     * @param modifiers modifiers applied as one source, e.g. class passives.
+     * @return values indexed by registry slot.
+     */
+    public double[] evaluate(int level, Map<String, Integer> allocated, Collection<StatModifier> modifiers) {
+        ModifierStack stack = new ModifierStack();
+        stack.rebind(registry);
+        stack.replace("evaluate", modifiers);
+        int[] points = new int[registry.size()];
+        for (Map.Entry<String, Integer> entry : allocated.entrySet()) {
+            int slot = registry.slotOf(entry.getKey());
+            if (slot >= 0 && slot < points.length) {
+                points[slot] = entry.getValue();
+            }
+        }
+        double[] values = new double[registry.size()];
+        // Attributes only ever set by modifiers first, since formulas may read them.
+        for (int slot : stack.modifiedSlots()) {
+            if (slot < values.length && !isComputed(slot)) {
+                values[slot] = stack.apply(slot, 0.0);
+            }
+        }
+        recompute(allMask.clone(), values, level, points, stack);
+        return values;
+    }
+
+    public AttributeRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * @return the evaluation-order bitset affected by a change of the given slot.
+     */
+    long[] affectedBy(int slot) {
+        return slot < affected.length ? affected[slot] : empty;
+    }
+
+    /**
+     * @return the evaluation-order bitset affected by a level change.
+     */
+    long[] levelMask() {
+        return levelMask;
+    }
+
+    /**
+     * @return whether the slot is a primary or secondary attribute this graph
+     *         computes, as opposed to one only ever set by modifiers.
+     */
+    boolean isComputed(int slot) {
+        return slot < computed.length && computed[slot];
+    }
+
+    long[] allMask() {
+        return allMask;
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    String nameAt(int index) {
+        return names[index];
+    }
+
+    int slotAt(int index) {
+        return slots[index];
+    }
+
+    static void or(long[] target, long[] mask) {
+        for (int i = 0; i < mask.length; i++) {
+            target[i] |= mask[i];
+        }
+    }
+
+    static boolean isEmpty(long[] mask) {
+        for (long word : mask) {
+            if (word != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void setBit(long[] mask, int bit) {
+        mask[bit >>> 6] |= 1L << bit;
+    }
+
+    private static boolean testBit(long[] mask, int bit) {
+        return (mask[bit >>> 6] & (1L << bit)) != 0;
+    }
+}
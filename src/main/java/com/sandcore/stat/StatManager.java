@@ -1,103 +1,567 @@
 package com.sandcore.stat;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
+import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
 
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
 import com.sandcore.SandCore;
+import com.sandcore.data.PlayerData;
+import com.sandcore.events.LevelChangeEvent;
+import com.sandcore.events.StatsChangeEvent;
 
-import net.objecthunter.exp4j.Expression;
-import net.objecthunter.exp4j.ExpressionBuilder;
-
-public class StatManager {
+/**
+ * StatManager owns the compiled attribute model and every player's stats.
+ *
+ * Stats are recomputed incrementally: a change to one input (an allocated point,
+ * the player's level, a modifier source) only marks the attributes that depend on it, and all marks
+ * made during a tick are coalesced into a single recompute at the end of the tick.
+ * Reading a dirty PlayerStats before then recomputes it on demand.
+ */
+public class StatManager implements Listener {
     private final Map<UUID, PlayerStats> playerStats = new ConcurrentHashMap<>();
     private final SandCore plugin;
-    private final FileConfiguration config;
+    private FileConfiguration config;
+
+    // Compiled once per config load; shared by every PlayerStats.
+    private AttributeRegistry registry;
+    private StatGraph graph;
+    // Hash of the attributes section, stored with cached derived stats to detect formula changes.
+    private String configHash;
+    // Players invalidated during the current tick, flushed at tick end.
+    private final Set<PlayerStats> pendingRecompute = new LinkedHashSet<>();
+    // Players whose snapshot was republished this tick, announced at tick end.
+    private final Set<PlayerStats> published = new LinkedHashSet<>();
+
+    private static final ModifierStack NO_MODIFIERS = new ModifierStack();
+
+    // Incremented per reload so a slow bulk recompute cannot overwrite a newer one.
+    private int reloadGeneration;
 
     public StatManager(SandCore plugin) {
         this.plugin = plugin;
         this.config = plugin.getConfig();
-        loadAttributeFormulas();
+        this.graph = compileGraph();
+        this.registry = graph.getRegistry();
+        this.configHash = hashAttributeConfig();
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
     }
 
-    private final Map<String, String> formulas = new HashMap<>();
+    /**
+     * Hashes everything under attributes.*, i.e. every input of the stat formulas
+     * other than the player's own level and allocations.
+     */
+    private String hashAttributeConfig() {
+        ConfigurationSection attributes = config.getConfigurationSection("attributes");
+        String source = attributes != null ? attributes.getValues(true).toString() : "";
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(source.hashCode());
+        }
+    }
+
+    private StatGraph compileGraph() {
+        return StatGraph.compile(config.getConfigurationSection("attributes"), plugin.getLogger());
+    }
+
+    /**
+     * Re-reads the attribute section from the (reloaded) plugin config and
+     * recomputes every cached player's stats in bulk.
+     *
+     * Formulas are compiled on the calling (main) thread. All players' inputs are
+     * then laid out as struct-of-arrays and evaluated in parallel on the fork/join
+     * pool, off the main thread. On the next tick the new model and every player's
+     * results are swapped in together, so readers see either the old or the new
+     * stats, never a mix. Until then the previous model keeps serving reads.
+     *
+     * @param onSwap run on the main thread right after the new model is live,
+     *               e.g. to recompile formulas that depend on the registry.
+     */
+    public void reload(Runnable onSwap) {
+        this.config = plugin.getConfig();
+        StatGraph newGraph = compileGraph();
+        AttributeRegistry newRegistry = newGraph.getRegistry();
+        String newHash = hashAttributeConfig();
+        int generation = ++reloadGeneration;
 
-    private void loadAttributeFormulas() {
-        ConfigurationSection secondary = config.getConfigurationSection("attributes.secondary");
-        for (String key : secondary.getKeys(false)) {
-            formulas.put(key, secondary.getString(key + ".formula"));
+        // Gather inputs on the main thread, where PlayerStats is owned.
+        PlayerStats[] rows = playerStats.values().toArray(new PlayerStats[0]);
+        int count = rows.length;
+        for (PlayerStats stats : rows) {
+            stats.modifiers.registerNames(newRegistry);
         }
+        StatColumns input = new StatColumns(newRegistry.size(), count);
+        int[] versions = new int[count];
+        for (int row = 0; row < count; row++) {
+            PlayerStats stats = rows[row];
+            input.levels[row] = stats.level;
+            versions[row] = stats.inputVersion;
+            for (int slot = 0; slot < stats.allocated.length; slot++) {
+                if (stats.allocated[slot] == 0) {
+                    continue;
+                }
+                int newSlot = newRegistry.slotOf(stats.boundRegistry.nameOf(slot));
+                if (newSlot >= 0) {
+                    input.setAllocated(newSlot, row, stats.allocated[slot]);
+                }
+            }
+            stats.modifiers.export(newRegistry, input, row);
+        }
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            boolean computed = true;
+            long start = System.nanoTime();
+            try {
+                // Modifier-only slots first: formulas may read them.
+                input.fillUncomputed(newGraph);
+                ForkJoinPool.commonPool().invoke(new BulkRecompute(newGraph, input, 0, count));
+            } catch (Exception e) {
+                plugin.getLogger().severe("Bulk stat recompute failed, falling back to lazy recompute: " + e.getMessage());
+                computed = false;
+            }
+            long micros = (System.nanoTime() - start) / 1000;
+            boolean useResults = computed;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (generation != reloadGeneration) {
+                    return; // A newer reload is in flight; its swap will win.
+                }
+                this.graph = newGraph;
+                this.registry = newRegistry;
+                this.configHash = newHash;
+                for (int row = 0; row < count; row++) {
+                    rows[row].adopt(useResults && rows[row].inputVersion == versions[row] ? input.values : null, row);
+                }
+                plugin.getLogger().info("Recomputed stats for " + count + " players in " + micros + "us.");
+                if (onSwap != null) {
+                    onSwap.run();
+                }
+            });
+        });
+    }
+
+    /**
+     * Returns the attribute registry of the currently loaded config. Damage formulas
+     * are compiled against the same registry so they can read a player's values directly.
+     */
+    public AttributeRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Returns the latest stat snapshot of a player, or null if the player's stats
+     * were never computed. Unlike {@link #getPlayerStats(Player)} this never
+     * creates or recomputes anything, so it may be called from async tasks.
+     */
+    public StatSnapshot getSnapshot(UUID uuid) {
+        PlayerStats stats = playerStats.get(uuid);
+        return stats != null ? stats.getSnapshot() : null;
     }
 
     public PlayerStats getPlayerStats(Player player) {
         return playerStats.computeIfAbsent(player.getUniqueId(), uuid -> new PlayerStats(player));
     }
 
+    /**
+     * Writes every cached player's allocations and derived stats into their
+     * PlayerData, ready to be saved. Called before the player data file is saved
+     * on shutdown.
+     */
+    public void storeAll() {
+        for (PlayerStats stats : playerStats.values()) {
+            stats.store();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        PlayerStats stats = playerStats.remove(event.getPlayer().getUniqueId());
+        if (stats != null) {
+            stats.store();
+            pendingRecompute.remove(stats);
+            published.remove(stats);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLevelChange(LevelChangeEvent event) {
+        PlayerStats stats = playerStats.get(event.getPlayer().getUniqueId());
+        if (stats != null) {
+            stats.setLevel(event.getNewLevel());
+        }
+    }
+
+    @EventHandler
+    public void onTickEnd(ServerTickEndEvent event) {
+        if (!pendingRecompute.isEmpty()) {
+            for (PlayerStats stats : pendingRecompute) {
+                stats.flush();
+            }
+            pendingRecompute.clear();
+        }
+        if (published.isEmpty()) {
+            return;
+        }
+        // Listeners may read (and so republish) stats; announce a copy.
+        PlayerStats[] changed = published.toArray(new PlayerStats[0]);
+        published.clear();
+        for (PlayerStats stats : changed) {
+            if (stats.player.isOnline() && playerStats.get(stats.player.getUniqueId()) == stats) {
+                StatSnapshot previous = stats.announced;
+                stats.announced = stats.snapshot;
+                Bukkit.getPluginManager().callEvent(new StatsChangeEvent(stats.player, previous, stats.snapshot));
+            }
+        }
+    }
+
+    /**
+     * A player's attribute values, stored densely by {@link AttributeRegistry} slot.
+     * The name-keyed methods are a compatibility layer over the arrays; hot paths
+     * should resolve slots once and use {@link #getAttribute(int)} or {@link #getValues()}.
+     * PlayerStats itself is main-thread only; other threads read {@link #getSnapshot()}.
+     */
     public class PlayerStats {
         private final Player player;
-        private final Map<String, Double> attributes = new HashMap<>();
-        private final Map<String, Integer> allocatedPoints = new HashMap<>();
+        // Attribute values and allocated points indexed by registry slot.
+        private double[] values = new double[0];
+        private int[] allocated = new int[0];
+        private int level;
+        // Bumped whenever an input changes, so bulk results computed from older inputs are discarded.
+        private int inputVersion;
+        // Computed attributes awaiting recomputation, as a bitset over graph evaluation order.
+        private long[] dirty = new long[0];
+        private final ModifierStack modifiers = new ModifierStack();
+        private AttributeRegistry boundRegistry;
+        private StatGraph boundGraph;
+        // Latest immutable copy of the values, republished when values changed since the last flush.
+        private volatile StatSnapshot snapshot;
+        private boolean snapshotStale = true;
+        private long snapshotVersion;
+        // Last snapshot passed to a StatsChangeEvent.
+        private StatSnapshot announced;
 
+        /**
+         * Loads the player's allocations. If the stored derived stats were computed
+         * with the current formulas and level, they are served as-is; otherwise all
+         * attributes are recomputed lazily (at the end of the tick or on first read).
+         */
         public PlayerStats(Player player) {
             this.player = player;
-            calculateStats();
+            PlayerData data = plugin.getPlayerDataManager().getPlayerData(player.getUniqueId());
+            this.level = data.getLevel();
+            bind();
+            for (Map.Entry<String, Integer> entry : data.getAllocatedPoints().entrySet()) {
+                int slot = registry.slotOf(entry.getKey());
+                if (slot >= 0) {
+                    allocated[slot] = entry.getValue();
+                }
+            }
+            if (restoreCachedStats(data)) {
+                Arrays.fill(dirty, 0L);
+                publish();
+            } else {
+                StatGraph.or(dirty, graph.allMask());
+                pendingRecompute.add(this);
+            }
+        }
+
+        private boolean restoreCachedStats(PlayerData data) {
+            Map<String, Double> cached = data.getCachedStats();
+            if (cached.isEmpty() || !configHash.equals(data.getCachedStatsHash()) || data.getCachedStatsLevel() != level) {
+                return false;
+            }
+            for (int i = 0; i < graph.size(); i++) {
+                Double value = cached.get(graph.nameAt(i));
+                if (value == null) {
+                    return false;
+                }
+                values[graph.slotAt(i)] = value;
+            }
+            return true;
+        }
+
+        /**
+         * Copies allocations and the derived stats into the player's PlayerData.
+         * Modifiers are transient (they are re-applied on join), so the stored values
+         * are computed without them.
+         */
+        void store() {
+            flush();
+            double[] base = values;
+            if (!modifiers.isEmpty()) {
+                base = new double[values.length];
+                graph.recompute(graph.allMask().clone(), base, level, allocated, NO_MODIFIERS);
+            }
+            Map<String, Double> stored = new LinkedHashMap<>();
+            for (int i = 0; i < graph.size(); i++) {
+                stored.put(graph.nameAt(i), base[graph.slotAt(i)]);
+            }
+            PlayerData data = plugin.getPlayerDataManager().getPlayerData(player.getUniqueId());
+            data.setCachedStats(stored, configHash, level);
         }
 
+        /**
+         * Recomputes every attribute immediately.
+         */
         public void calculateStats() {
-            // Calculate primary attributes
-            ConfigurationSection primary = config.getConfigurationSection("attributes.primary");
-            for (String attr : primary.getKeys(false)) {
-                double base = primary.getDouble(attr + ".base");
-                double perLevel = primary.getDouble(attr + ".per-level");
-                int allocated = allocatedPoints.getOrDefault(attr, 0);
-                attributes.put(attr, base + (player.getLevel() * perLevel) + allocated);
+            bind();
+            StatGraph.or(dirty, graph.allMask());
+            flush();
+        }
+
+        /**
+         * Re-lays out the per-player arrays if the model changed since the last recompute.
+         */
+        private void bind() {
+            if (boundGraph == graph && values.length >= registry.size()) {
+                return;
+            }
+            if (boundRegistry != registry) {
+                // Slots were reassigned by a config reload; carry allocations and modifiers over by name.
+                modifiers.rebind(registry);
+                int[] newAllocated = new int[registry.size()];
+                for (int slot = 0; slot < allocated.length; slot++) {
+                    if (allocated[slot] != 0) {
+                        int newSlot = registry.slotOf(boundRegistry.nameOf(slot));
+                        if (newSlot >= 0) {
+                            newAllocated[newSlot] = allocated[slot];
+                        }
+                    }
+                }
+                allocated = newAllocated;
+                values = new double[registry.size()];
+                boundRegistry = registry;
+                snapshotStale = true;
+                for (int slot : modifiers.modifiedSlots()) {
+                    refreshUncomputed(slot);
+                }
+            } else {
+                // Same layout, the registry only grew.
+                allocated = Arrays.copyOf(allocated, registry.size());
+                values = Arrays.copyOf(values, registry.size());
+            }
+            if (boundGraph != graph) {
+                // Evaluation order changed; everything has to be recomputed.
+                dirty = graph.allMask().clone();
+                boundGraph = graph;
+            }
+        }
+
+        /**
+         * Marks everything that depends on the given attribute slot as stale. The
+         * recompute happens at the end of the tick, or on the next read.
+         */
+        public void invalidate(int slot) {
+            inputVersion++;
+            bind();
+            StatGraph.or(dirty, graph.affectedBy(slot));
+            pendingRecompute.add(this);
+        }
+
+        /**
+         * Replaces all modifiers contributed by a source (e.g. "equipment:mainhand").
+         * Only the attributes the old and new modifiers touch are recomputed.
+         *
+         * @param source a stable name for whatever grants the modifiers.
+         * @param newModifiers the source's modifiers; empty removes the source.
+         */
+        public void setModifiers(String source, Collection<StatModifier> newModifiers) {
+            bind();
+            int[] touched = modifiers.replace(source, newModifiers);
+            if (touched.length == 0) {
+                return;
+            }
+            inputVersion++;
+            bind(); // the modifiers may have registered new attributes
+            for (int slot : touched) {
+                refreshUncomputed(slot);
+                StatGraph.or(dirty, graph.affectedBy(slot));
             }
+            snapshotStale = true;
+            pendingRecompute.add(this);
+        }
 
-            // Calculate secondary attributes
-            for (Map.Entry<String, String> entry : formulas.entrySet()) {
-                double value = evaluateFormula(entry.getValue());
-                attributes.put(entry.getKey(), value);
+        public void removeModifiers(String source) {
+            if (modifiers.hasSource(source)) {
+                setModifiers(source, Collections.emptyList());
             }
         }
 
-        private double evaluateFormula(String formula) {
-            try {
-                Expression expression = new ExpressionBuilder(formula)
-                    .variables(attributes.keySet())
-                    .build()
-                    .setVariables(attributes);
-                return expression.evaluate();
-            } catch (Exception e) {
-                plugin.getLogger().severe("Error evaluating formula: " + formula);
-                return 0.0;
+        /**
+         * Attributes no formula computes (e.g. penetration) only hold their modifier totals.
+         */
+        private void refreshUncomputed(int slot) {
+            if (!graph.isComputed(slot)) {
+                values[slot] = modifiers.apply(slot, 0.0);
+            }
+        }
+
+        void setLevel(int newLevel) {
+            if (newLevel == level) {
+                return;
+            }
+            level = newLevel;
+            inputVersion++;
+            snapshotStale = true;
+            bind();
+            StatGraph.or(dirty, graph.levelMask());
+            pendingRecompute.add(this);
+        }
+
+        /**
+         * Moves this player onto the current model. If bulk results are given, they
+         * become the player's values and nothing is left to recompute; otherwise
+         * everything is recomputed lazily.
+         */
+        void adopt(double[][] columns, int row) {
+            bind();
+            if (columns == null) {
+                pendingRecompute.add(this);
+                return;
             }
+            for (int slot = 0; slot < values.length && slot < columns.length; slot++) {
+                values[slot] = columns[slot][row];
+            }
+            Arrays.fill(dirty, 0L);
+            publish();
+        }
+
+        /**
+         * Recomputes the stale attributes, if any, and publishes a new snapshot
+         * if anything changed.
+         */
+        void flush() {
+            bind();
+            if (!StatGraph.isEmpty(dirty)) {
+                graph.recompute(dirty, values, level, allocated, modifiers);
+                snapshotStale = true;
+            }
+            if (snapshotStale) {
+                publish();
+            }
+        }
+
+        private void publish() {
+            snapshot = new StatSnapshot(registry, values.clone(), level, ++snapshotVersion);
+            snapshotStale = false;
+            published.add(this);
+        }
+
+        /**
+         * Returns the most recently published snapshot. Safe to call from any thread.
+         * On the main thread, changes made during the current tick become visible
+         * once they are flushed (at the end of the tick or on the next direct read).
+         */
+        public StatSnapshot getSnapshot() {
+            return snapshot;
+        }
+
+        /**
+         * Flushes pending changes and returns a snapshot of the current values.
+         * Main thread only; the result can then be handed to any thread or kept.
+         */
+        public StatSnapshot takeSnapshot() {
+            flush();
+            return snapshot;
+        }
+
+        /**
+         * Returns the value of the attribute in the given registry slot, or 0 for an unknown slot.
+         */
+        public double getAttribute(int slot) {
+            flush();
+            return slot >= 0 && slot < values.length ? values[slot] : 0.0;
         }
 
         public double getAttribute(String key) {
-            return attributes.getOrDefault(key, 0.0);
+            return getAttribute(registry.slotOf(key));
         }
 
+        /**
+         * Returns the names of all primary and secondary attributes.
+         */
         public Set<String> getAttributeNames() {
-            return attributes.keySet();
+            Set<String> names = new LinkedHashSet<>();
+            for (int i = 0; i < graph.size(); i++) {
+                names.add(graph.nameAt(i));
+            }
+            return names;
         }
-        
+
+        /**
+         * Builds a name-keyed copy of all primary and secondary attributes.
+         * Intended for display and debugging, not per-hit use.
+         */
         public Map<String, Double> getAttributesMap() {
-            return new HashMap<>(attributes);
+            flush();
+            Map<String, Double> map = new HashMap<>();
+            for (int i = 0; i < graph.size(); i++) {
+                map.put(graph.nameAt(i), values[graph.slotAt(i)]);
+            }
+            return map;
+        }
+
+        /**
+         * Returns the attribute values indexed by {@link AttributeRegistry} slot.
+         * The array is owned by this object and must not be modified.
+         */
+        public double[] getValues() {
+            flush();
+            return values;
         }
 
         public void increaseAttribute(String attribute, int points) {
-            allocatedPoints.put(attribute, allocatedPoints.getOrDefault(attribute, 0) + points);
-            calculateStats(); // Recalculate with new points
+            int slot = registry.slotOf(attribute);
+            if (slot < 0) {
+                return;
+            }
+            bind();
+            allocated[slot] += points;
+            plugin.getPlayerDataManager().getPlayerData(player.getUniqueId())
+                    .getAllocatedPoints().merge(attribute, points, Integer::sum);
+            invalidate(slot);
+        }
+
+        public int getAllocated(String attribute) {
+            int slot = registry.slotOf(attribute);
+            bind();
+            return slot >= 0 ? allocated[slot] : 0;
         }
 
         public Map<String, Integer> getAllocatedPoints() {
-            return new HashMap<>(allocatedPoints);
+            bind();
+            Map<String, Integer> map = new HashMap<>();
+            for (int slot = 0; slot < allocated.length; slot++) {
+                if (allocated[slot] != 0) {
+                    map.put(registry.nameOf(slot), allocated[slot]);
+                }
+            }
+            return map;
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package com.sandcore.stat;
+
+/**
+ * A single contribution to an attribute from a modifier source such as an
+ * equipped item, a buff or a class passive.
+ *
+ * Totals are combined as {@code (base + flat) * (1 + percent / 100) * factor},
+ * where flat and percent contributions are summed and factors are multiplied.
+ */
+public final class StatModifier {
+
+    public enum Operation {
+        /** Added to the base value. */
+        FLAT,
+        /** Percentages are summed, then applied once: 10 means +10%. */
+        PERCENT,
+        /** Multiplies the total: 1.2 means x1.2. */
+        MULTIPLY
+    }
+
+    private final String attribute;
+    private final Operation operation;
+    private final double value;
+
+    public StatModifier(String attribute, Operation operation, double value) {
+        this.attribute = attribute;
+        this.operation = operation;
+        this.value = value;
+    }
+
+    /**
+     * Parses a modifier from a config value: a number is flat ({@code 5}), a
+     * trailing % makes it a percentage ({@code "10%"}), and a leading x makes it
+     * multiplicative ({@code "x1.2"}).
+     *
+     * @return the modifier, or null if the value cannot be parsed.
+     */
+    public static StatModifier parse(String attribute, Object spec) {
+        if (spec instanceof Number) {
+            return new StatModifier(attribute, Operation.FLAT, ((Number) spec).doubleValue());
+        }
+        if (spec == null) {
+            return null;
+        }
+        String text = spec.toString().trim();
+        Operation operation = Operation.FLAT;
+        if (text.endsWith("%")) {
+            operation = Operation.PERCENT;
+            text = text.substring(0, text.length() - 1).trim();
+        } else if (text.startsWith("x") || text.startsWith("X") || text.startsWith("*")) {
+            operation = Operation.MULTIPLY;
+            text = text.substring(1).trim();
+        }
+        try {
+            return new StatModifier(attribute, operation, Double.parseDouble(text));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StatModifier)) {
+            return false;
+        }
+        StatModifier other = (StatModifier) o;
+        return operation == other.operation
+                && Double.compare(value, other.value) == 0
+                && attribute.equals(other.attribute);
+    }
+
+    @Override
+    public int hashCode() {
+        return (attribute.hashCode() * 31 + operation.hashCode()) * 31 + Double.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        switch (operation) {
+            case PERCENT:
+                return attribute + " " + value + "%";
+            case MULTIPLY:
+                return attribute + " x" + value;
+            default:
+                return attribute + " " + value;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.sandcore.stat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An immutable copy of a player's attribute values as of one recompute.
+ *
+ * A new snapshot is published after every recompute that changed something, so a
+ * snapshot never mixes values from before and after a change. Snapshots are safe
+ * to read from any thread without locking; the main thread never waits for readers.
+ */
+public final class StatSnapshot {
+    private final AttributeRegistry registry;
+    private final double[] values;
+    private final int level;
+    private final long version;
+
+    StatSnapshot(AttributeRegistry registry, double[] values, int level, long version) {
+        this.registry = registry;
+        this.values = values;
+        this.level = level;
+        this.version = version;
+    }
+
+    /**
+     * Returns the value in the given registry slot, or 0 for an unknown slot.
+     */
+    public double get(int slot) {
+        return slot >= 0 && slot < values.length ? values[slot] : 0.0;
+    }
+
+    public double get(String attribute) {
+        return get(registry.slotOf(attribute));
+    }
+
+    /**
+     * The registry the slots of this snapshot refer to. After a config reload,
+     * older snapshots keep their old registry.
+     */
+    public AttributeRegistry getRegistry() {
+        return registry;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Increases with every snapshot published for the same player.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the values indexed by registry slot, for formula evaluation. The
+     * array is shared by every reader of this snapshot and must not be modified;
+     * use {@link #toArray()} for a private copy.
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    /**
+     * Returns a copy of the values indexed by registry slot.
+     */
+    public double[] toArray() {
+        return Arrays.copyOf(values, values.length);
+    }
+
+    /**
+     * Builds a name-keyed view of every attribute with a value. Intended for
+     * display and debugging, not per-hit use.
+     */
+    public Map<String, Double> toMap() {
+        Map<String, Double> map = new LinkedHashMap<>();
+        for (int slot = 0; slot < values.length && slot < registry.size(); slot++) {
+            map.put(registry.nameOf(slot), values[slot]);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+}
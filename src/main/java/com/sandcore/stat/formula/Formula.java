@@ -0,0 +1,57 @@
+package com.sandcore.stat.formula;
+
+/**
+ * A formula compiled once by {@link FormulaCompiler}. Variables are resolved to
+ * slot indices at compile time, so evaluation is a plain tree walk over a
+ * double[] and allocates nothing.
+ */
+public final class Formula {
+    private final String source;
+    private final Node root;
+    private final int[] variables;
+
+    Formula(String source, Node root, int[] variables) {
+        this.source = source;
+        this.root = root;
+        this.variables = variables;
+    }
+
+    /**
+     * Evaluates the formula against the given slot values. Slots beyond the end
+     * of the array read as 0.
+     */
+    public double evaluate(double[] vars) {
+        return root.eval(vars);
+    }
+
+    /**
+     * Evaluates the formula for one row of struct-of-arrays input, where
+     * {@code columns[slot][row]} holds the value of a slot for that row.
+     */
+    public double evaluate(double[][] columns, int row) {
+        return root.evalColumn(columns, row);
+    }
+
+    /**
+     * @return true if constant folding reduced the whole formula to one value.
+     */
+    public boolean isConstant() {
+        return root.isConstant();
+    }
+
+    /**
+     * @return the distinct slots this formula reads, in ascending order.
+     */
+    public int[] getVariables() {
+        return variables.clone();
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
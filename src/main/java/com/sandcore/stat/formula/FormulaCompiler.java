@@ -0,0 +1,281 @@
+package com.sandcore.stat.formula;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+import com.sandcore.stat.AttributeRegistry;
+
+/**
+ * FormulaCompiler parses the arithmetic formulas used in config.yml into
+ * {@link Formula} trees.
+ *
+ * The accepted syntax matches what exp4j accepted for our configs: numbers,
+ * attribute names, + - * / % ^ (right associative), unary minus, parentheses,
+ * implicit multiplication after a number (2x, 2(x + 1)), the constants pi and e,
+ * and the usual math functions (abs, sqrt, log, min, max, ...).
+ *
+ * Attribute names are resolved against an {@link AttributeRegistry} and must
+ * already be registered; compiling never changes the registry. Every
+ * sub-expression that does not depend on a variable is folded into a constant
+ * at compile time.
+ */
+public class FormulaCompiler {
+    private static final Map<String, DoubleUnaryOperator> UNARY_FUNCTIONS = new HashMap<>();
+    private static final Map<String, DoubleBinaryOperator> BINARY_FUNCTIONS = new HashMap<>();
+    private static final Map<String, Double> CONSTANTS = new HashMap<>();
+
+    static {
+        UNARY_FUNCTIONS.put("abs", Math::abs);
+        UNARY_FUNCTIONS.put("acos", Math::acos);
+        UNARY_FUNCTIONS.put("asin", Math::asin);
+        UNARY_FUNCTIONS.put("atan", Math::atan);
+        UNARY_FUNCTIONS.put("cbrt", Math::cbrt);
+        UNARY_FUNCTIONS.put("ceil", Math::ceil);
+        UNARY_FUNCTIONS.put("cos", Math::cos);
+        UNARY_FUNCTIONS.put("cosh", Math::cosh);
+        UNARY_FUNCTIONS.put("exp", Math::exp);
+        UNARY_FUNCTIONS.put("expm1", Math::expm1);
+        UNARY_FUNCTIONS.put("floor", Math::floor);
+        UNARY_FUNCTIONS.put("log", Math::log);
+        UNARY_FUNCTIONS.put("log10", Math::log10);
+        UNARY_FUNCTIONS.put("log1p", Math::log1p);
+        UNARY_FUNCTIONS.put("log2", x -> Math.log(x) / Math.log(2));
+        UNARY_FUNCTIONS.put("signum", Math::signum);
+        UNARY_FUNCTIONS.put("sin", Math::sin);
+        UNARY_FUNCTIONS.put("sinh", Math::sinh);
+        UNARY_FUNCTIONS.put("sqrt", Math::sqrt);
+        UNARY_FUNCTIONS.put("tan", Math::tan);
+        UNARY_FUNCTIONS.put("tanh", Math::tanh);
+
+        BINARY_FUNCTIONS.put("min", Math::min);
+        BINARY_FUNCTIONS.put("max", Math::max);
+        BINARY_FUNCTIONS.put("pow", Math::pow);
+
+        CONSTANTS.put("pi", Math.PI);
+        CONSTANTS.put("e", Math.E);
+    }
+
+    private final AttributeRegistry registry;
+
+    public FormulaCompiler(AttributeRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Compiles a formula.
+     *
+     * @param formula the formula source, e.g. "strength * 1.5 + dexterity * 0.5".
+     * @return the compiled formula.
+     * @throws FormulaException if the formula is empty, malformed or references an unknown attribute.
+     */
+    public Formula compile(String formula) {
+        if (formula == null || formula.isBlank()) {
+            throw new FormulaException("Empty formula", String.valueOf(formula), 0);
+        }
+        Parser parser = new Parser(formula);
+        Node root = parser.parseExpression();
+        parser.skipWhitespace();
+        if (parser.pos < formula.length()) {
+            throw new FormulaException("Unexpected '" + formula.charAt(parser.pos) + "'", formula, parser.pos);
+        }
+        int[] variables = parser.variables.stream().mapToInt(Integer::intValue).toArray();
+        return new Formula(formula, root, variables);
+    }
+
+    private class Parser {
+        private final String src;
+        private final TreeSet<Integer> variables = new TreeSet<>();
+        private int pos;
+
+        Parser(String src) {
+            this.src = src;
+        }
+
+        Node parseExpression() {
+            Node left = parseTerm();
+            while (true) {
+                if (accept('+')) {
+                    left = fold(new Node.Add(left, parseTerm()));
+                } else if (accept('-')) {
+                    left = fold(new Node.Subtract(left, parseTerm()));
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        Node parseTerm() {
+            Node left = parseUnary();
+            while (true) {
+                if (accept('*')) {
+                    left = fold(new Node.Multiply(left, parseUnary()));
+                } else if (accept('/')) {
+                    left = fold(new Node.Divide(left, parseUnary()));
+                } else if (accept('%')) {
+                    left = fold(new Node.Binary((a, b) -> a % b, left, parseUnary()));
+                } else if (left.isConstant() && startsOperand()) {
+                    // Implicit multiplication after a number: 2x, 2(x + 1)
+                    left = fold(new Node.Multiply(left, parseUnary()));
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        Node parseUnary() {
+            if (accept('-')) {
+                return fold(new Node.Negate(parseUnary()));
+            }
+            if (accept('+')) {
+                return parseUnary();
+            }
+            return parsePower();
+        }
+
+        Node parsePower() {
+            Node base = parsePrimary();
+            if (accept('^')) {
+                return fold(new Node.Binary(Math::pow, base, parseUnary()));
+            }
+            return base;
+        }
+
+        Node parsePrimary() {
+            skipWhitespace();
+            if (pos >= src.length()) {
+                throw new FormulaException("Unexpected end of formula", src, pos);
+            }
+            char c = src.charAt(pos);
+            if (accept('(')) {
+                Node inner = parseExpression();
+                expect(')');
+                return inner;
+            }
+            if (Character.isDigit(c) || c == '.') {
+                return parseNumber();
+            }
+            if (isIdentifierStart(c)) {
+                int start = pos;
+                String name = parseIdentifier();
+                if (accept('(')) {
+                    return parseFunction(name, start);
+                }
+                Double constant = CONSTANTS.get(name);
+                if (constant != null && !registry.contains(name)) {
+                    return new Node.Constant(constant);
+                }
+                int slot = registry.slotOf(name);
+                if (slot < 0) {
+                    throw new FormulaException("Unknown attribute '" + name + "'", src, start);
+                }
+                variables.add(slot);
+                return new Node.Variable(slot);
+            }
+            throw new FormulaException("Unexpected '" + c + "'", src, pos);
+        }
+
+        Node parseFunction(String name, int start) {
+            DoubleUnaryOperator unary = UNARY_FUNCTIONS.get(name);
+            if (unary != null) {
+                Node arg = parseExpression();
+                expect(')');
+                return fold(new Node.Unary(unary, arg));
+            }
+            DoubleBinaryOperator binary = BINARY_FUNCTIONS.get(name);
+            if (binary != null) {
+                Node first = parseExpression();
+                expect(',');
+                Node second = parseExpression();
+                expect(')');
+                return fold(new Node.Binary(binary, first, second));
+            }
+            throw new FormulaException("Unknown function '" + name + "'", src, start);
+        }
+
+        Node parseNumber() {
+            int start = pos;
+            while (pos < src.length() && (Character.isDigit(src.charAt(pos)) || src.charAt(pos) == '.')) {
+                pos++;
+            }
+            if (pos < src.length() && (src.charAt(pos) == 'e' || src.charAt(pos) == 'E')) {
+                int mark = pos++;
+                if (pos < src.length() && (src.charAt(pos) == '+' || src.charAt(pos) == '-')) {
+                    pos++;
+                }
+                if (pos < src.length() && Character.isDigit(src.charAt(pos))) {
+                    while (pos < src.length() && Character.isDigit(src.charAt(pos))) {
+                        pos++;
+                    }
+                } else {
+                    // Not an exponent, e.g. "2e" meaning 2 * e; leave it for implicit multiplication.
+                    pos = mark;
+                }
+            }
+            try {
+                return new Node.Constant(Double.parseDouble(src.substring(start, pos)));
+            } catch (NumberFormatException e) {
+                throw new FormulaException("Invalid number '" + src.substring(start, pos) + "'", src, start);
+            }
+        }
+
+        String parseIdentifier() {
+            int start = pos;
+            while (pos < src.length() && isIdentifierPart(src.charAt(pos))) {
+                pos++;
+            }
+            return src.substring(start, pos);
+        }
+
+        boolean startsOperand() {
+            skipWhitespace();
+            if (pos >= src.length()) {
+                return false;
+            }
+            char c = src.charAt(pos);
+            return c == '(' || isIdentifierStart(c);
+        }
+
+        boolean accept(char expected) {
+            skipWhitespace();
+            if (pos < src.length() && src.charAt(pos) == expected) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char expected) {
+            if (!accept(expected)) {
+                throw new FormulaException("Expected '" + expected + "'", src, pos);
+            }
+        }
+
+        void skipWhitespace() {
+            while (pos < src.length() && Character.isWhitespace(src.charAt(pos))) {
+                pos++;
+            }
+        }
+    }
+
+    /**
+     * Collapses a node whose operands are all constants into a single constant.
+     * Operands are folded bottom-up, so checking the direct operands is enough.
+     */
+    private static Node fold(Node node) {
+        if (!node.isConstant() && node.operandsConstant()) {
+            return new Node.Constant(node.eval(new double[0]));
+        }
+        return node;
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return Character.isLetter(c) || c == '_';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
@@ -0,0 +1,23 @@
+package com.sandcore.stat.formula;
+
+/**
+ * Thrown when a formula from the configuration cannot be compiled.
+ */
+public class FormulaException extends RuntimeException {
+    private final String formula;
+    private final int position;
+
+    public FormulaException(String message, String formula, int position) {
+        super(message + " at position " + position + " in \"" + formula + "\"");
+        this.formula = formula;
+        this.position = position;
+    }
+
+    public String getFormula() {
+        return formula;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+}
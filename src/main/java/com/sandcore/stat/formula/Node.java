@@ -0,0 +1,257 @@
+package com.sandcore.stat.formula;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A node of a compiled formula tree. Evaluation only reads the variable array,
+ * so a tree may be shared freely between threads.
+ */
+abstract class Node {
+
+    abstract double eval(double[] vars);
+
+    /**
+     * Evaluates against struct-of-arrays input: {@code columns[slot][row]}.
+     */
+    abstract double evalColumn(double[][] columns, int row);
+
+    boolean isConstant() {
+        return false;
+    }
+
+    /**
+     * @return true if every direct operand of this node is a constant.
+     */
+    abstract boolean operandsConstant();
+
+    static final class Constant extends Node {
+        final double value;
+
+        Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        double eval(double[] vars) {
+            return value;
+        }
+
+        @Override
+        double evalColumn(double[][] columns, int row) {
+            return value;
+        }
+
+        @Override
+        boolean isConstant() {
+            return true;
+        }
+
+        @Override
+        boolean operandsConstant() {
+            return true;
+        }
+    }
+
+    static final class Variable extends Node {
+        final int slot;
+
+        Variable(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        double eval(double[] vars) {
+            return slot < vars.length ? vars[slot] : 0.0;
+        }
+
+        @Override
+        double evalColumn(double[][] columns, int row) {
+            return slot < columns.length ? columns[slot][row] : 0.0;
+        }
+
+        @Override
+        boolean operandsConstant() {
+            return false;
+        }
+    }
+
+    static final class Negate extends Node {
+        private final Node operand;
+
+        Negate(Node operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        double eval(double[] vars) {
+            return -operand.eval(vars);
+        }
+
+        @Override
+        double evalColumn(double[][] columns, int row) {
+            return -operand.evalColumn(columns, row);
+        }
+
+        @Override
+        boolean operandsConstant() {
+            return operand.isConstant();
+        }
+    }
+
+    static final class Add extends Node {
+        private final Node left;
+        private final Node right;
+
+        Add(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double eval(double[] vars) {
+            return left.eval(vars) + right.eval(vars);
+        }
+
+        @Override
+        double evalColumn(double[][] columns, int row) {
+            return left.evalColumn(columns, row) + right.evalColumn(columns, row);
+        }
+
+        @Override
+        boolean operandsConstant() {
+            return left.isConstant() && right.isConstant();
+        }
+    }
+
+    static final class Subtract extends Node {
+        private final Node left;
+        private final Node right;
+
+        Subtract(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double eval(double[] vars) {
+            return left.eval(vars) - right.eval(vars);
+        }
+
+        @Override
+        double evalColumn(double[][] columns, int row) {
+            return left.evalColumn(columns, row) - right.evalColumn(columns, row);
+        }
+
+        @Override
+        boolean operandsConstant() {
+            return left.isConstant() && right.isConstant();
+        }
+    }
+
+    static final class Multiply extends Node {
+        private final Node left;
+        private final Node right;
+
+        Multiply(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double eval(double[] vars) {
+            return left.eval(vars) * right.eval(vars);
+        }
+
+        @Override
+        double evalColumn(double[][] columns, int row) {
+            return left.evalColumn(columns, row) * right.evalColumn(columns, row);
+        }
+
+        @Override
+        boolean operandsConstant() {
+            return left.isConstant() && right.isConstant();
+        }
+    }
+
+    static final class Divide extends Node {
+        private final Node left;
+        private final Node right;
+
+        Divide(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double eval(double[] vars) {
+            return left.eval(vars) / right.eval(vars);
+        }
+
+        @Override
+        double evalColumn(double[][] columns, int row) {
+            return left.evalColumn(columns, row) / right.evalColumn(columns, row);
+        }
+
+        @Override
+        boolean operandsConstant() {
+            return left.isConstant() && right.isConstant();
+        }
+    }
+
+    /**
+     * Generic binary operator, used for the less common operators and functions
+     * (power, modulo, min, max).
+     */
+    static final class Binary extends Node {
+        private final DoubleBinaryOperator op;
+        private final Node left;
+        private final Node right;
+
+        Binary(DoubleBinaryOperator op, Node left, Node right) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        double eval(double[] vars) {
+            return op.applyAsDouble(left.eval(vars), right.eval(vars));
+        }
+
+        @Override
+        double evalColumn(double[][] columns, int row) {
+            return op.applyAsDouble(left.evalColumn(columns, row), right.evalColumn(columns, row));
+        }
+
+        @Override
+        boolean operandsConstant() {
+            return left.isConstant() && right.isConstant();
+        }
+    }
+
+    static final class Unary extends Node {
+        private final DoubleUnaryOperator op;
+        private final Node operand;
+
+        Unary(DoubleUnaryOperator op, Node operand) {
+            this.op = op;
+            this.operand = operand;
+        }
+
+        @Override
+        double eval(double[] vars) {
+            return op.applyAsDouble(operand.eval(vars));
+        }
+
+        @Override
+        double evalColumn(double[][] columns, int row) {
+            return op.applyAsDouble(operand.evalColumn(columns, row));
+        }
+
+        @Override
+        boolean operandsConstant() {
+            return operand.isConstant();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.sandcore.status;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import com.sandcore.stat.StatModifier;
+
+/**
+ * The definition of a buff or debuff, loaded from config.yml:
+ *
+ * <pre>
+ * status_effects:
+ *   battle_cry:
+ *     duration: 200        # ticks
+ *     stacking: stack      # refresh, stack, independent or keep
+ *     max_stacks: 3
+ *     modifiers:
+ *       strength: 2        # per stack; same syntax as item attributes
+ *       attack_speed: "10%"
+ * </pre>
+ */
+public final class StatusEffect {
+
+    /**
+     * What happens when an effect is applied to a player who already has it.
+     */
+    public enum Stacking {
+        /** One stack; the duration restarts. */
+        REFRESH,
+        /** One more stack, up to max_stacks; the duration of all stacks restarts. */
+        STACK,
+        /** One more stack with its own duration; at max_stacks the oldest is replaced. */
+        INDEPENDENT,
+        /** Reapplying does nothing until the effect has expired. */
+        KEEP
+    }
+
+    private final String id;
+    private final long duration;
+    private final Stacking stacking;
+    private final int maxStacks;
+    private final List<StatModifier> modifiers;
+
+    public StatusEffect(String id, long duration, Stacking stacking, int maxStacks, List<StatModifier> modifiers) {
+        this.id = id;
+        this.duration = duration;
+        this.stacking = stacking;
+        this.maxStacks = maxStacks;
+        this.modifiers = Collections.unmodifiableList(new ArrayList<>(modifiers));
+    }
+
+    /**
+     * Parses one entry of the status_effects section.
+     *
+     * @return the effect, or null if it is unusable (reported to the logger).
+     */
+    static StatusEffect fromConfig(String id, ConfigurationSection section, Logger logger) {
+        long duration = section.getLong("duration", 0L);
+        if (duration <= 0) {
+            logger.warning("Status effect " + id + " has no positive duration; skipped.");
+            return null;
+        }
+        Stacking stacking;
+        try {
+            stacking = Stacking.valueOf(section.getString("stacking", "refresh").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warning("Unknown stacking rule for status effect " + id + ": " + section.getString("stacking")
+                    + "; using refresh.");
+            stacking = Stacking.REFRESH;
+        }
+        int maxStacks = stacking == Stacking.STACK || stacking == Stacking.INDEPENDENT
+                ? Math.max(1, section.getInt("max_stacks", 1)) : 1;
+
+        List<StatModifier> modifiers = new ArrayList<>();
+        ConfigurationSection modifierSection = section.getConfigurationSection("modifiers");
+        if (modifierSection != null) {
+            for (String attribute : modifierSection.getKeys(false)) {
+                StatModifier modifier = StatModifier.parse(attribute, modifierSection.get(attribute));
+                if (modifier == null) {
+                    logger.warning("Invalid modifier for status effect " + id + ": " + attribute);
+                    continue;
+                }
+                modifiers.add(modifier);
+            }
+        }
+        return new StatusEffect(id, duration, stacking, maxStacks, modifiers);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Default duration in ticks.
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    public Stacking getStacking() {
+        return stacking;
+    }
+
+    public int getMaxStacks() {
+        return maxStacks;
+    }
+
+    /**
+     * The modifiers of a single stack.
+     */
+    public List<StatModifier> getModifiers() {
+        return modifiers;
+    }
+}
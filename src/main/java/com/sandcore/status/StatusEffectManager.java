@@ -0,0 +1,306 @@
+package com.sandcore.status;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import com.sandcore.SandCore;
+import com.sandcore.stat.StatManager;
+import com.sandcore.stat.StatModifier;
+import com.sandcore.util.TimingWheel;
+
+/**
+ * StatusEffectManager applies buffs and debuffs to players and expires them.
+ *
+ * An active effect feeds its modifiers (times its stacks) into the player's
+ * stats as the modifier source "status:&lt;id&gt;", so only the attributes it touches
+ * are recomputed. Expiry is driven by the plugin's shared {@link TimingWheel}
+ * ({@link SandCore#getTimingWheel()}) instead of a scheduler task per effect:
+ * applying, refreshing and removing an effect are O(1), and a tick only visits
+ * the effects that expire in it.
+ *
+ * Effects are not persisted; they end when the player quits.
+ */
+public class StatusEffectManager implements Listener {
+    private static final String SOURCE_PREFIX = "status:";
+
+    private final SandCore plugin;
+    private final StatManager statManager;
+    private final TimingWheel<Runnable> wheel;
+    private final Map<UUID, Map<String, ActiveEffect>> active = new HashMap<>();
+    private Map<String, StatusEffect> definitions = new HashMap<>();
+
+    public StatusEffectManager(SandCore plugin, StatManager statManager) {
+        this.plugin = plugin;
+        this.statManager = statManager;
+        this.wheel = plugin.getTimingWheel();
+        loadConfiguration();
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    /**
+     * (Re)loads the status_effects section. Active effects keep their remaining
+     * duration and pick up their new modifiers; effects that were removed from
+     * the config end immediately.
+     */
+    public void loadConfiguration() {
+        Map<String, StatusEffect> loaded = new HashMap<>();
+        ConfigurationSection section = plugin.getConfig().getConfigurationSection("status_effects");
+        if (section != null) {
+            for (String id : section.getKeys(false)) {
+                ConfigurationSection effectSection = section.getConfigurationSection(id);
+                StatusEffect effect = effectSection != null
+                        ? StatusEffect.fromConfig(id.toLowerCase(), effectSection, plugin.getLogger()) : null;
+                if (effect != null) {
+                    loaded.put(effect.getId(), effect);
+                }
+            }
+        }
+        this.definitions = loaded;
+        plugin.getLogger().info("Loaded " + loaded.size() + " status effects.");
+
+        for (Map.Entry<UUID, Map<String, ActiveEffect>> entry : active.entrySet()) {
+            Player player = Bukkit.getPlayer(entry.getKey());
+            Iterator<ActiveEffect> iterator = entry.getValue().values().iterator();
+            while (iterator.hasNext()) {
+                ActiveEffect effect = iterator.next();
+                StatusEffect definition = loaded.get(effect.definition.getId());
+                if (definition == null) {
+                    effect.cancelAll();
+                    iterator.remove();
+                    effect.stacks = 0;
+                } else {
+                    effect.definition = definition;
+                    effect.trim();
+                }
+                if (player != null) {
+                    updateModifiers(player, effect);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies an effect for its configured duration.
+     *
+     * @return false if the effect is unknown or was not applied because of its stacking rule.
+     */
+    public boolean apply(Player player, String effectId) {
+        StatusEffect definition = definitions.get(effectId.toLowerCase());
+        return definition != null && apply(player, definition, definition.getDuration());
+    }
+
+    /**
+     * Applies an effect for the given number of ticks instead of its configured duration.
+     */
+    public boolean apply(Player player, String effectId, long durationTicks) {
+        StatusEffect definition = definitions.get(effectId.toLowerCase());
+        return definition != null && apply(player, definition, durationTicks);
+    }
+
+    private boolean apply(Player player, StatusEffect definition, long duration) {
+        Map<String, ActiveEffect> effects = active.computeIfAbsent(player.getUniqueId(), uuid -> new HashMap<>());
+        ActiveEffect effect = effects.get(definition.getId());
+        if (effect == null) {
+            effect = new ActiveEffect(player.getUniqueId(), definition);
+            effects.put(definition.getId(), effect);
+            effect.timers.add(wheel.schedule(effect, duration));
+            effect.stacks = 1;
+            updateModifiers(player, effect);
+            return true;
+        }
+
+        switch (definition.getStacking()) {
+            case KEEP:
+                return false;
+            case REFRESH:
+                wheel.reschedule(effect.timers.peekFirst(), duration);
+                return true;
+            case STACK:
+                wheel.reschedule(effect.timers.peekFirst(), duration);
+                if (effect.stacks < definition.getMaxStacks()) {
+                    effect.stacks++;
+                    updateModifiers(player, effect);
+                }
+                return true;
+            case INDEPENDENT:
+                if (effect.timers.size() >= definition.getMaxStacks()) {
+                    // Replace the oldest stack; the stack count stays the same.
+                    TimingWheel.Timer<Runnable> oldest = effect.timers.pollFirst();
+                    wheel.reschedule(oldest, duration);
+                    effect.timers.addLast(oldest);
+                    return true;
+                }
+                effect.timers.addLast(wheel.schedule(effect, duration));
+                effect.stacks = effect.timers.size();
+                updateModifiers(player, effect);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Ends an effect immediately, with all its stacks.
+     *
+     * @return whether the player had the effect.
+     */
+    public boolean remove(Player player, String effectId) {
+        Map<String, ActiveEffect> effects = active.get(player.getUniqueId());
+        ActiveEffect effect = effects != null ? effects.remove(effectId.toLowerCase()) : null;
+        if (effect == null) {
+            return false;
+        }
+        effect.cancelAll();
+        effect.stacks = 0;
+        updateModifiers(player, effect);
+        return true;
+    }
+
+    /**
+     * Ends every effect on the player.
+     */
+    public void clear(Player player) {
+        Map<String, ActiveEffect> effects = active.remove(player.getUniqueId());
+        if (effects == null) {
+            return;
+        }
+        for (ActiveEffect effect : effects.values()) {
+            effect.cancelAll();
+            effect.stacks = 0;
+            updateModifiers(player, effect);
+        }
+    }
+
+    public int getStacks(Player player, String effectId) {
+        Map<String, ActiveEffect> effects = active.get(player.getUniqueId());
+        ActiveEffect effect = effects != null ? effects.get(effectId.toLowerCase()) : null;
+        return effect != null ? effect.stacks : 0;
+    }
+
+    /**
+     * Returns the ticks until the effect's last stack expires, or 0 if it is not active.
+     */
+    public long getRemainingTicks(Player player, String effectId) {
+        Map<String, ActiveEffect> effects = active.get(player.getUniqueId());
+        ActiveEffect effect = effects != null ? effects.get(effectId.toLowerCase()) : null;
+        if (effect == null) {
+            return 0L;
+        }
+        long deadline = 0L;
+        for (TimingWheel.Timer<Runnable> timer : effect.timers) {
+            deadline = Math.max(deadline, timer.getDeadline());
+        }
+        return Math.max(0L, deadline - wheel.now());
+    }
+
+    /**
+     * Returns the ids of the effects active on the player.
+     */
+    public Set<String> getActiveEffects(Player player) {
+        Map<String, ActiveEffect> effects = active.get(player.getUniqueId());
+        return effects != null ? Collections.unmodifiableSet(effects.keySet()) : Collections.emptySet();
+    }
+
+    public Set<String> getEffectIds() {
+        return Collections.unmodifiableSet(definitions.keySet());
+    }
+
+    private void expire(ActiveEffect effect) {
+        // Drop the timers that just fired; for independent stacks others may remain.
+        effect.timers.removeIf(timer -> !timer.isScheduled());
+        if (effect.definition.getStacking() == StatusEffect.Stacking.INDEPENDENT && !effect.timers.isEmpty()) {
+            effect.stacks = effect.timers.size();
+        } else {
+            effect.cancelAll();
+            effect.stacks = 0;
+            Map<String, ActiveEffect> effects = active.get(effect.player);
+            if (effects != null) {
+                effects.remove(effect.definition.getId());
+                if (effects.isEmpty()) {
+                    active.remove(effect.player);
+                }
+            }
+        }
+        Player player = Bukkit.getPlayer(effect.player);
+        if (player != null) {
+            updateModifiers(player, effect);
+        }
+    }
+
+    private void updateModifiers(Player player, ActiveEffect effect) {
+        String source = SOURCE_PREFIX + effect.definition.getId();
+        if (effect.stacks <= 0) {
+            statManager.getPlayerStats(player).removeModifiers(source);
+            return;
+        }
+        List<StatModifier> perStack = effect.definition.getModifiers();
+        List<StatModifier> modifiers = new ArrayList<>(perStack.size() * effect.stacks);
+        for (int i = 0; i < effect.stacks; i++) {
+            modifiers.addAll(perStack);
+        }
+        statManager.getPlayerStats(player).setModifiers(source, modifiers);
+    }
+
+    // Stats are dropped on quit as well, so only the timers need to go.
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        Map<String, ActiveEffect> effects = active.remove(event.getPlayer().getUniqueId());
+        if (effects != null) {
+            for (ActiveEffect effect : effects.values()) {
+                effect.cancelAll();
+            }
+        }
+    }
+
+    private final class ActiveEffect implements Runnable {
+        final UUID player;
+        StatusEffect definition;
+        int stacks;
+        // Oldest first. One timer unless the stacking rule is independent.
+        final ArrayDeque<TimingWheel.Timer<Runnable>> timers = new ArrayDeque<>();
+
+        ActiveEffect(UUID player, StatusEffect definition) {
+            this.player = player;
+            this.definition = definition;
+        }
+
+        // Called by the wheel when one of the timers expires.
+        @Override
+        public void run() {
+            expire(this);
+        }
+
+        /**
+         * Fits the timers and stacks to a (reloaded) definition, dropping the oldest stacks first.
+         */
+        void trim() {
+            boolean independent = definition.getStacking() == StatusEffect.Stacking.INDEPENDENT;
+            int keep = independent ? definition.getMaxStacks() : 1;
+            while (timers.size() > keep) {
+                wheel.cancel(timers.pollFirst());
+            }
+            stacks = independent ? timers.size() : Math.min(stacks, definition.getMaxStacks());
+        }
+
+        void cancelAll() {
+            for (TimingWheel.Timer<Runnable> timer : timers) {
+                wheel.cancel(timer);
+            }
+            timers.clear();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.sandcore.util;
+
+import java.util.Arrays;
+
+/**
+ * A hash table from long keys (e.g. packed chunk coordinates) to int values,
+ * without boxing.
+ *
+ * Open addressing with linear probing; removals shift later entries back, so
+ * there are no tombstones and lookups stay short under constant churn. Not
+ * thread-safe.
+ */
+public final class Long2IntTable {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+
+    public Long2IntTable() {
+        this(64);
+    }
+
+    public Long2IntTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Returns the value for the key, or {@code missing} if there is none.
+     */
+    public int get(long key, int missing) {
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : missing;
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    public void put(long key, int value) {
+        int index = mix(key) & mask;
+        while (used[index]) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        used[index] = true;
+        if (++size > (mask + 1) * LOAD_FACTOR) {
+            rehash((mask + 1) << 1);
+        }
+    }
+
+    /**
+     * @return whether the key was present.
+     */
+    public boolean remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        size--;
+        // Shift back entries whose probe sequence passes through the freed slot.
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (used[next]) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[gap] = false;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    private int indexOf(long key) {
+        int index = mix(key) & mask;
+        while (used[index]) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int index = mix(oldKeys[i]) & mask;
+                while (used[index]) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+                used[index] = true;
+                size++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    // Neighbouring chunks and sequential ids differ in few bits; spread them.
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,192 @@
+package com.sandcore.util;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel for tick-based timeouts.
+ *
+ * Four levels of 64 slots cover 64, 4096, 262144 and 16777216 ticks. A timer is
+ * filed in the lowest level whose span covers its delay; when a lower level
+ * wraps around, the next slot of the level above is cascaded down. Scheduling
+ * and cancelling are O(1), and advancing one tick only touches the timers that
+ * are due (plus, every 64 ticks, one slot being cascaded). Timers further out
+ * than the top level are parked in it and re-filed until they are in range.
+ *
+ * Not thread-safe; meant to be advanced once per tick on the main thread.
+ */
+public final class TimingWheel<T> {
+    private static final int LEVELS = 4;
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+
+    // Sentinel heads of circular doubly-linked lists, per [level][slot].
+    private final Timer<T>[][] wheels;
+    private long now;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel() {
+        wheels = new Timer[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Timer<T> head = new Timer<>(null);
+                head.prev = head;
+                head.next = head;
+                wheels[level][slot] = head;
+            }
+        }
+    }
+
+    /**
+     * Schedules a payload to expire after the given number of ticks (at least 1).
+     *
+     * @return a handle for {@link #cancel(Timer)} or {@link #reschedule(Timer, long)}.
+     */
+    public Timer<T> schedule(T payload, long delayTicks) {
+        Timer<T> timer = new Timer<>(payload);
+        timer.deadline = now + Math.max(1L, delayTicks);
+        file(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * Moves a scheduled (or already expired) timer to a new delay.
+     */
+    public void reschedule(Timer<T> timer, long delayTicks) {
+        if (timer.isScheduled()) {
+            unlink(timer);
+        } else {
+            size++;
+        }
+        timer.deadline = now + Math.max(1L, delayTicks);
+        file(timer);
+    }
+
+    /**
+     * Cancels a timer. Does nothing if it already expired or was cancelled.
+     *
+     * @return whether the timer was still scheduled.
+     */
+    public boolean cancel(Timer<T> timer) {
+        if (timer == null || !timer.isScheduled()) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Advances the wheel by one tick and passes every payload that is now due to
+     * the callback. The callback may schedule or cancel timers.
+     */
+    public void advance(Consumer<? super T> expired) {
+        now++;
+        // Cascade every level whose lower levels just wrapped around.
+        for (int level = 1; level < LEVELS; level++) {
+            if ((now & ((1L << (BITS * level)) - 1)) != 0) {
+                break;
+            }
+            int slot = (int) (now >>> (BITS * level)) & MASK;
+            Timer<T> chain = detach(wheels[level][slot]);
+            while (chain != null) {
+                Timer<T> next = chain.next;
+                file(chain);
+                chain = next;
+            }
+        }
+
+        // Pop due timers one at a time from the live slot, so a callback that
+        // cancels or reschedules another due timer simply takes it out of the slot.
+        // A rescheduled timer never lands in the current slot (its delay is 1..63
+        // ticks at this level, or it goes to a higher level).
+        Timer<T> head = wheels[0][(int) now & MASK];
+        while (head.next != head) {
+            Timer<T> timer = head.next;
+            unlink(timer);
+            size--;
+            expired.accept(timer.payload);
+        }
+    }
+
+    /**
+     * The number of ticks this wheel has been advanced.
+     */
+    public long now() {
+        return now;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void file(Timer<T> timer) {
+        long delay = timer.deadline - now;
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+        long tick = delay >= (1L << (BITS * LEVELS)) ? now + (1L << (BITS * LEVELS)) - 1 : timer.deadline;
+        Timer<T> head = wheels[level][(int) (tick >>> (BITS * level)) & MASK];
+        timer.prev = head.prev;
+        timer.next = head;
+        head.prev.next = timer;
+        head.prev = timer;
+    }
+
+    private void unlink(Timer<T> timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+
+    /**
+     * Empties a slot and returns its timers as a null-terminated chain linked by
+     * {@code next}; their {@code prev} is cleared so they count as unscheduled.
+     */
+    private Timer<T> detach(Timer<T> head) {
+        if (head.next == head) {
+            return null;
+        }
+        Timer<T> first = head.next;
+        head.prev.next = null;
+        head.prev = head;
+        head.next = head;
+        for (Timer<T> timer = first; timer != null; timer = timer.next) {
+            timer.prev = null;
+        }
+        return first;
+    }
+
+    /**
+     * A scheduled payload.
+     */
+    public static final class Timer<T> {
+        private final T payload;
+        private long deadline;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(T payload) {
+            this.payload = payload;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        /**
+         * The tick (in {@link TimingWheel#now()} terms) this timer expires at.
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+
+        public boolean isScheduled() {
+            return prev != null;
+        }
+    }
+}
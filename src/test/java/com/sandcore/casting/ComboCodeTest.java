@@ -0,0 +1,75 @@
+package com.sandcore.casting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class ComboCodeTest {
+
+    @Test
+    void appendsClicksInOrder() {
+        int code = ComboCode.append(ComboCode.append(ComboCode.append(ComboCode.EMPTY, ComboCode.LEFT), ComboCode.RIGHT), ComboCode.LEFT);
+        assertEquals(3, ComboCode.length(code));
+        assertEquals(ComboCode.LEFT, ComboCode.clickAt(code, 0));
+        assertEquals(ComboCode.RIGHT, ComboCode.clickAt(code, 1));
+        assertEquals(ComboCode.LEFT, ComboCode.clickAt(code, 2));
+        assertEquals("L,R,L", ComboCode.toString(code, ","));
+    }
+
+    @Test
+    void stopsAppendingAtMaxLength() {
+        int code = ComboCode.EMPTY;
+        for (int i = 0; i < ComboCode.MAX_LENGTH; i++) {
+            code = ComboCode.append(code, ComboCode.RIGHT);
+        }
+        assertEquals(ComboCode.MAX_LENGTH, ComboCode.length(code));
+        assertEquals(code, ComboCode.append(code, ComboCode.LEFT));
+    }
+
+    @Test
+    void everyComboHasADistinctNonNegativeCode() {
+        Set<Integer> codes = new HashSet<>();
+        codes.add(ComboCode.EMPTY);
+        int expected = 1;
+        Set<Integer> level = new HashSet<>(codes);
+        for (int length = 1; length <= ComboCode.MAX_LENGTH; length++) {
+            Set<Integer> next = new HashSet<>();
+            for (int code : level) {
+                next.add(ComboCode.append(code, ComboCode.LEFT));
+                next.add(ComboCode.append(code, ComboCode.RIGHT));
+            }
+            for (int code : next) {
+                assertTrue(code >= 0);
+                assertEquals(length, ComboCode.length(code));
+            }
+            codes.addAll(next);
+            expected += 1 << length;
+            level = next;
+        }
+        assertEquals(expected, codes.size());
+    }
+
+    @Test
+    void parsesWithOrWithoutSeparators() {
+        int code = ComboCode.parse("LRL");
+        assertEquals(code, ComboCode.parse("L,R,L"));
+        assertEquals(code, ComboCode.parse("l-r-l"));
+        assertEquals(code, ComboCode.parse("L R L"));
+        assertEquals("LRL", ComboCode.toString(code, ""));
+        assertNotEquals(code, ComboCode.parse("LR"));
+        assertEquals(6, ComboCode.length(ComboCode.parse("LRLRLR")));
+    }
+
+    @Test
+    void rejectsInvalidCombos() {
+        assertEquals(-1, ComboCode.parse(""));
+        assertEquals(-1, ComboCode.parse(",,"));
+        assertEquals(-1, ComboCode.parse("LXR"));
+        assertEquals(-1, ComboCode.parse("LRLRLRL"));
+    }
+}
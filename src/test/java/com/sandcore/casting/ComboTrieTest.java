@@ -0,0 +1,90 @@
+package com.sandcore.casting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+class ComboTrieTest {
+    private static final Logger LOGGER = Logger.getLogger(ComboTrieTest.class.getName());
+
+    private static int code(String combo) {
+        return ComboCode.parse(combo);
+    }
+
+    @Test
+    void findsCombosAndTheirPrefixes() {
+        ComboTrie trie = ComboTrie.build(new int[] {code("LRL"), code("LRR"), code("R")});
+        // Root, L, LR, LRL, LRR, R.
+        assertEquals(6, trie.size());
+
+        assertEquals(0, trie.valueOf(trie.find(code("LRL"))));
+        assertEquals(1, trie.valueOf(trie.find(code("LRR"))));
+        assertEquals(2, trie.valueOf(trie.find(code("R"))));
+
+        int prefix = trie.find(code("LR"));
+        assertTrue(prefix != ComboTrie.NONE);
+        assertEquals(ComboTrie.NONE, trie.valueOf(prefix));
+        assertTrue(trie.hasChildren(prefix));
+        assertFalse(trie.hasChildren(trie.find(code("LRL"))));
+
+        assertEquals(ComboTrie.NONE, trie.find(code("RL")));
+        assertEquals(ComboTrie.NONE, trie.find(code("LL")));
+    }
+
+    @Test
+    void walksOneClickAtATime() {
+        ComboTrie trie = ComboTrie.build(new int[] {code("LR")});
+        int node = trie.next(ComboTrie.ROOT, ComboCode.LEFT);
+        assertEquals(ComboTrie.NONE, trie.next(ComboTrie.ROOT, ComboCode.RIGHT));
+        node = trie.next(node, ComboCode.RIGHT);
+        assertEquals(trie.find(code("LR")), node);
+        assertEquals(0, trie.valueOf(node));
+    }
+
+    @Test
+    void laterDuplicateWins() {
+        ComboTrie trie = ComboTrie.build(new int[] {code("RR"), code("RR")});
+        assertEquals(1, trie.valueOf(trie.find(code("RR"))));
+        assertEquals(3, trie.size());
+    }
+
+    @Test
+    void tableResolvesCompleteAmbiguousAndRejectedCombos() {
+        Map<String, String> combos = new LinkedHashMap<>();
+        combos.put("L", "jab");
+        combos.put("L,R,L", "uppercut");
+        combos.put("RRRRRR", "storm");
+        combos.put("LXL", "broken");
+        ComboTable table = ComboTable.compile(combos, "test", LOGGER);
+
+        assertFalse(table.isEmpty());
+        assertEquals(6, table.getMaxLength());
+        assertEquals("jab", table.skillFor(code("L")));
+        assertEquals("uppercut", table.skillFor(code("LRL")));
+        assertEquals("storm", table.skillFor(code("RRRRRR")));
+        assertNull(table.skillFor(code("LR")));
+        assertNull(table.skillFor(code("RL")));
+
+        // "L" is complete but also starts "LRL": ambiguous.
+        int node = table.next(ComboTrie.ROOT, ComboCode.LEFT);
+        assertEquals("jab", table.skillAt(node));
+        assertTrue(table.hasLongerCombos(node));
+        // "LL" is rejected on the second click.
+        assertEquals(ComboTrie.NONE, table.next(node, ComboCode.LEFT));
+    }
+
+    @Test
+    void emptyTableHasNoCombos() {
+        ComboTable table = ComboTable.compile(new LinkedHashMap<>(), "test", LOGGER);
+        assertTrue(table.isEmpty());
+        assertEquals(ComboTrie.NONE, table.next(ComboTrie.ROOT, ComboCode.LEFT));
+        assertNull(table.skillFor(code("L")));
+    }
+}
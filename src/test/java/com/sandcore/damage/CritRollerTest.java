@@ -0,0 +1,102 @@
+package com.sandcore.damage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CritRollerTest {
+    private static final int ROLLS = 200_000;
+
+    @Test
+    void prdConstantMatchesKnownValues() {
+        assertEquals(0.003802, CritRoller.prdConstant(0.05), 1e-5);
+        assertEquals(0.084744, CritRoller.prdConstant(0.25), 1e-5);
+        assertEquals(0.302103, CritRoller.prdConstant(0.50), 1e-5);
+        assertEquals(0.0, CritRoller.prdConstant(0.0));
+        assertEquals(1.0, CritRoller.prdConstant(1.0));
+    }
+
+    @Test
+    void prdKeepsTheNominalRate() {
+        for (double chance : new double[] {5, 25, 37.5, 50, 80}) {
+            CritRoller.Session session = new CritRoller.Session(CritRoller.Mode.PRD, 7L);
+            int crits = 0;
+            for (int i = 0; i < ROLLS; i++) {
+                if (session.roll(chance)) {
+                    crits++;
+                }
+            }
+            assertEquals(chance / 100.0, crits / (double) ROLLS, 0.01, "chance " + chance);
+        }
+    }
+
+    @Test
+    void prdBoundsTheLongestDrought() {
+        // P(N) = C * N reaches 1 after ceil(1 / C) hits, so no drought can be longer.
+        int maxDrought = (int) Math.ceil(1.0 / CritRoller.prdConstant(0.25)) - 1;
+        CritRoller.Session session = new CritRoller.Session(CritRoller.Mode.PRD, 11L);
+        int drought = 0;
+        int longest = 0;
+        for (int i = 0; i < ROLLS; i++) {
+            drought = session.roll(25) ? 0 : drought + 1;
+            longest = Math.max(longest, drought);
+        }
+        assertTrue(longest <= maxDrought, "longest drought " + longest + " > " + maxDrought);
+    }
+
+    @Test
+    void prdHasFewerLongDroughtsThanRandom() {
+        assertTrue(longDroughts(CritRoller.Mode.PRD) < longDroughts(CritRoller.Mode.RANDOM));
+    }
+
+    private static int longDroughts(CritRoller.Mode mode) {
+        CritRoller.Session session = new CritRoller.Session(mode, 3L);
+        int drought = 0;
+        int count = 0;
+        for (int i = 0; i < ROLLS; i++) {
+            if (session.roll(25)) {
+                drought = 0;
+            } else if (++drought == 8) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    void randomKeepsTheNominalRate() {
+        CritRoller.Session session = new CritRoller.Session(CritRoller.Mode.RANDOM, 5L);
+        int crits = 0;
+        for (int i = 0; i < ROLLS; i++) {
+            if (session.roll(30)) {
+                crits++;
+            }
+        }
+        assertEquals(0.30, crits / (double) ROLLS, 0.01);
+    }
+
+    @Test
+    void sameSeedReplaysTheSameHits() {
+        for (CritRoller.Mode mode : CritRoller.Mode.values()) {
+            CritRoller.Session first = new CritRoller.Session(mode, 1234L);
+            CritRoller.Session second = new CritRoller.Session(mode, 1234L);
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(first.roll(40), second.roll(40));
+            }
+            assertEquals(1234L, first.getSeed());
+        }
+    }
+
+    @Test
+    void chancesOutsideZeroToHundredAreCertain() {
+        CritRoller.Session session = new CritRoller.Session(CritRoller.Mode.PRD, 1L);
+        for (int i = 0; i < 100; i++) {
+            assertFalse(session.roll(0));
+            assertFalse(session.roll(-5));
+            assertTrue(session.roll(100));
+            assertTrue(session.roll(250));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.sandcore.stat.formula;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sandcore.stat.AttributeRegistry;
+
+class FormulaCompilerTest {
+    private static final double EPSILON = 1e-9;
+
+    private AttributeRegistry registry;
+    private FormulaCompiler compiler;
+    private int strength;
+    private int dexterity;
+
+    @BeforeEach
+    void setUp() {
+        registry = new AttributeRegistry();
+        strength = registry.register("strength");
+        dexterity = registry.register("dexterity");
+        compiler = new FormulaCompiler(registry);
+    }
+
+    private double eval(String formula, double strengthValue, double dexterityValue) {
+        double[] values = new double[registry.size()];
+        values[strength] = strengthValue;
+        values[dexterity] = dexterityValue;
+        return compiler.compile(formula).evaluate(values);
+    }
+
+    private double eval(String formula) {
+        return eval(formula, 0, 0);
+    }
+
+    @Test
+    void multiplicationBindsTighterThanAddition() {
+        assertEquals(14, eval("2 + 3 * 4"), EPSILON);
+        assertEquals(20, eval("(2 + 3) * 4"), EPSILON);
+        assertEquals(1, eval("7 - 4 - 2"), EPSILON);
+        assertEquals(1, eval("12 / 3 / 4"), EPSILON);
+        assertEquals(1, eval("7 % 3"), EPSILON);
+    }
+
+    @Test
+    void powerIsRightAssociativeAndBindsTighterThanUnaryMinus() {
+        assertEquals(512, eval("2 ^ 3 ^ 2"), EPSILON);
+        assertEquals(-4, eval("-2 ^ 2"), EPSILON);
+        assertEquals(0.25, eval("2 ^ -2"), EPSILON);
+    }
+
+    @Test
+    void readsAttributesBySlot() {
+        assertEquals(17.5, eval("strength * 1.5 + dexterity * 0.5", 10, 5), EPSILON);
+        assertEquals(2, eval("-strength + dexterity", 3, 5), EPSILON);
+    }
+
+    @Test
+    void supportsImplicitMultiplicationAfterANumber() {
+        assertEquals(20, eval("2strength", 10, 0), EPSILON);
+        assertEquals(22, eval("2(strength + 1)", 10, 0), EPSILON);
+        assertEquals(2 * Math.E, eval("2e"), EPSILON);
+        assertEquals(2000, eval("2e3"), EPSILON);
+    }
+
+    @Test
+    void supportsFunctionsAndConstants() {
+        assertEquals(4, eval("max(strength, 4)", 1, 0), EPSILON);
+        assertEquals(3, eval("sqrt(9)"), EPSILON);
+        assertEquals(Math.PI, eval("pi"), EPSILON);
+        assertEquals(8, eval("pow(2, 3)"), EPSILON);
+    }
+
+    @Test
+    void registeredAttributeShadowsConstant() {
+        int e = registry.register("e");
+        double[] values = new double[registry.size()];
+        values[e] = 5;
+        assertEquals(10, compiler.compile("e * 2").evaluate(values), EPSILON);
+    }
+
+    @Test
+    void foldsConstantSubexpressions() {
+        assertTrue(compiler.compile("2 * 3 + max(1, 4) - sqrt(16)").isConstant());
+        Formula formula = compiler.compile("strength * (2 + 3)");
+        assertFalse(formula.isConstant());
+        assertArrayEquals(new int[] {strength}, formula.getVariables());
+    }
+
+    @Test
+    void listsEveryVariableOnce() {
+        Formula formula = compiler.compile("dexterity + strength * dexterity");
+        assertArrayEquals(new int[] {strength, dexterity}, formula.getVariables());
+    }
+
+    @Test
+    void slotsBeyondTheValuesReadAsZero() {
+        assertEquals(1, compiler.compile("dexterity + 1").evaluate(new double[0]), EPSILON);
+    }
+
+    @Test
+    void rejectsUnknownAttributesWithoutRegisteringThem() {
+        FormulaException e = assertThrows(FormulaException.class, () -> compiler.compile("strength + strenght"));
+        assertEquals(11, e.getPosition());
+        assertEquals(2, registry.size());
+        assertFalse(registry.contains("strenght"));
+    }
+
+    @Test
+    void rejectsMalformedFormulas() {
+        assertThrows(FormulaException.class, () -> compiler.compile(""));
+        assertThrows(FormulaException.class, () -> compiler.compile(null));
+        assertThrows(FormulaException.class, () -> compiler.compile("1 +"));
+        assertThrows(FormulaException.class, () -> compiler.compile("(1 + 2"));
+        assertThrows(FormulaException.class, () -> compiler.compile("1 2"));
+        assertThrows(FormulaException.class, () -> compiler.compile("frobnicate(1)"));
+        assertThrows(FormulaException.class, () -> compiler.compile("max(1)"));
+    }
+}
@@ -0,0 +1,153 @@
+package com.sandcore.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    /**
+     * Advances the wheel tick by tick and records the tick each payload expired at.
+     */
+    private static Map<String, Long> advance(TimingWheel<String> wheel, long ticks) {
+        Map<String, Long> fired = new HashMap<>();
+        for (long i = 0; i < ticks; i++) {
+            wheel.advance(payload -> fired.put(payload, wheel.now()));
+        }
+        return fired;
+    }
+
+    @Test
+    void firesEachTimerAtItsDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>();
+        // Level 0, both ends of level 1 and 2, level 3.
+        long[] delays = {1, 63, 64, 65, 4095, 4096, 4097, 262143, 262144, 300000};
+        for (long delay : delays) {
+            wheel.schedule("t" + delay, delay);
+        }
+        assertEquals(delays.length, wheel.size());
+
+        Map<String, Long> fired = advance(wheel, 300000);
+        for (long delay : delays) {
+            assertEquals(delay, fired.get("t" + delay), "timer with delay " + delay);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesTimersScheduledMidRotation() {
+        TimingWheel<String> wheel = new TimingWheel<>();
+        advance(wheel, 37);
+        wheel.schedule("a", 100);
+        wheel.schedule("b", 5000);
+        Map<String, Long> fired = advance(wheel, 5000);
+        assertEquals(137, fired.get("a"));
+        assertEquals(5037, fired.get("b"));
+    }
+
+    @Test
+    void parksTimersBeyondTheTopLevel() {
+        TimingWheel<String> wheel = new TimingWheel<>();
+        long delay = (1L << 24) + 10;
+        wheel.schedule("far", delay);
+        Map<String, Long> fired = advance(wheel, delay);
+        assertEquals(delay, fired.get("far"));
+    }
+
+    @Test
+    void clampsDelayToOneTick() {
+        TimingWheel<String> wheel = new TimingWheel<>();
+        wheel.schedule("now", 0);
+        assertEquals(1, advance(wheel, 1).get("now"));
+    }
+
+    @Test
+    void cancelledTimersDoNotFire() {
+        TimingWheel<String> wheel = new TimingWheel<>();
+        TimingWheel.Timer<String> timer = wheel.schedule("a", 100);
+        assertTrue(wheel.cancel(timer));
+        assertFalse(wheel.cancel(timer));
+        assertFalse(wheel.cancel(null));
+        assertTrue(advance(wheel, 200).isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rescheduleMovesAPendingOrExpiredTimer() {
+        TimingWheel<String> wheel = new TimingWheel<>();
+        TimingWheel.Timer<String> timer = wheel.schedule("a", 10);
+        wheel.reschedule(timer, 100);
+        assertEquals(1, wheel.size());
+        assertEquals(100, advance(wheel, 100).get("a"));
+
+        wheel.reschedule(timer, 5);
+        assertEquals(1, wheel.size());
+        assertEquals(105, advance(wheel, 5).get("a"));
+    }
+
+    @Test
+    void callbackMayCancelOrRescheduleTimersDueInTheSameTick() {
+        TimingWheel<Runnable> wheel = new TimingWheel<>();
+        List<String> fired = new ArrayList<>();
+        List<TimingWheel.Timer<Runnable>> timers = new ArrayList<>();
+        timers.add(wheel.schedule(() -> {
+            fired.add("a");
+            wheel.cancel(timers.get(1));
+            wheel.reschedule(timers.get(2), 3);
+        }, 5));
+        timers.add(wheel.schedule(() -> fired.add("b"), 5));
+        timers.add(wheel.schedule(() -> fired.add("c"), 5));
+        timers.add(wheel.schedule(() -> fired.add("d"), 5));
+
+        for (int i = 0; i < 5; i++) {
+            wheel.advance(Runnable::run);
+        }
+        assertEquals(List.of("a", "d"), fired);
+        for (int i = 0; i < 3; i++) {
+            wheel.advance(Runnable::run);
+        }
+        assertEquals(List.of("a", "d", "c"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void callbackMayScheduleNewTimers() {
+        TimingWheel<Runnable> wheel = new TimingWheel<>();
+        List<Long> fired = new ArrayList<>();
+        wheel.schedule(() -> wheel.schedule(() -> fired.add(wheel.now()), 64), 10);
+        for (int i = 0; i < 100; i++) {
+            wheel.advance(Runnable::run);
+        }
+        assertEquals(List.of(74L), fired);
+    }
+
+    @Test
+    void matchesDeadlinesUnderRandomScheduling() {
+        Random random = new Random(42);
+        TimingWheel<Long> wheel = new TimingWheel<>();
+        int[] errors = {0};
+        int[] expired = {0};
+        for (int tick = 0; tick < 20000; tick++) {
+            for (int i = random.nextInt(4); i > 0; i--) {
+                long delay = 1 + (random.nextBoolean() ? random.nextInt(100) : random.nextInt(20000));
+                wheel.schedule(wheel.now() + delay, delay);
+            }
+            wheel.advance(deadline -> {
+                expired[0]++;
+                if (deadline != wheel.now()) {
+                    errors[0]++;
+                }
+            });
+        }
+        assertEquals(0, errors[0]);
+        assertTrue(expired[0] > 0);
+    }
+}